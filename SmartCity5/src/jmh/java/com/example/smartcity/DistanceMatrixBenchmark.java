@@ -0,0 +1,68 @@
+package com.example.smartcity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Incident x station distance matrices; the 10000 case is the 10k x 10k dispatch planning target.
+// Needs a heap of at least ~1 GB for the 10000 case (e.g. -Djmh.args="DistanceMatrix -jvmArgs -Xmx2g").
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistanceMatrixBenchmark {
+
+    @Param({"1000", "10000"})
+    public int points;
+
+    private double[] originLat;
+    private double[] originLon;
+    private DistanceMatrix.Points origins;
+    private DistanceMatrix.Points destinations;
+    private float[] floatMatrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        originLat = new double[points];
+        originLon = new double[points];
+        double[] destinationLat = new double[points];
+        double[] destinationLon = new double[points];
+        for (int i = 0; i < points; i++) {
+            originLat[i] = random.nextDouble(20.6, 26.6);
+            originLon[i] = random.nextDouble(88.0, 92.7);
+            destinationLat[i] = random.nextDouble(20.6, 26.6);
+            destinationLon[i] = random.nextDouble(88.0, 92.7);
+        }
+        origins = DistanceMatrix.Points.of(originLat, originLon);
+        destinations = DistanceMatrix.Points.of(destinationLat, destinationLon);
+        floatMatrix = new float[points * points];
+    }
+
+    // Stations prepared once, incidents converted per call
+    @Benchmark
+    public float[] incidentsToStations() {
+        DistanceMatrix.compute(DistanceMatrix.Points.of(originLat, originLon), destinations, floatMatrix);
+        return floatMatrix;
+    }
+
+    @Benchmark
+    public float[] preparedPoints() {
+        DistanceMatrix.compute(origins, destinations, floatMatrix);
+        return floatMatrix;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.smartcity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Per-pair cost of each distance formula in GeoMath, and of the per-call haversine the app used to have
+// (DistanceCalculatorCity.haversine / FireStationApp.calculateDistance). Every call covers PAIRS pairs.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoMathBenchmark {
+
+    private static final int POINTS = 1024;
+    // consecutive points form the pairs; no wrap-around, so the loops stay free of index arithmetic
+    private static final int PAIRS = POINTS - 1;
+
+    private final double[] lat = new double[POINTS];
+    private final double[] lon = new double[POINTS];
+    private final GeoMath.Point[] prepared = new GeoMath.Point[POINTS];
+    private final double[] unit = new double[3 * POINTS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < POINTS; i++) {
+            lat[i] = random.nextDouble(20.6, 26.6);
+            lon[i] = random.nextDouble(88.0, 92.7);
+            prepared[i] = new GeoMath.Point(lat[i], lon[i]);
+            GeoMath.unitVector(lat[i], lon[i], unit, 3 * i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double legacyHaversine() {
+        double sum = 0;
+        for (int i = 1; i < POINTS; i++) {
+            sum += legacyHaversine(lat[i - 1], lon[i - 1], lat[i], lon[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double haversine() {
+        double sum = 0;
+        for (int i = 1; i < POINTS; i++) {
+            sum += GeoMath.haversineKm(lat[i - 1], lon[i - 1], lat[i], lon[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double haversinePrepared() {
+        double sum = 0;
+        for (int i = 1; i < POINTS; i++) {
+            sum += GeoMath.haversineKm(prepared[i - 1], prepared[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double equirectangular() {
+        double sum = 0;
+        for (int i = 1; i < POINTS; i++) {
+            sum += GeoMath.equirectangularKm(prepared[i - 1], prepared[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double chord() {
+        double sum = 0;
+        for (int i = 3; i < 3 * POINTS; i += 3) {
+            sum += GeoMath.chordKm(unit[i] - unit[i - 3], unit[i + 1] - unit[i - 2], unit[i + 2] - unit[i - 1]);
+        }
+        return sum;
+    }
+
+    // The formula both screens used before GeoMath
+    private static double legacyHaversine(double lat1, double lon1, double lat2, double lon2) {
+        final int R = 6371;
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return R * c;
+    }
+}
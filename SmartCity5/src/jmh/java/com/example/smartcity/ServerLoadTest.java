@@ -0,0 +1,134 @@
+package com.example.smartcity;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Closed-loop load test for SmartCityServer: each of --concurrency virtual-thread clients sends the
+// next URL as soon as its previous answer arrives. After --warmup seconds it measures for --seconds
+// and prints requests/second and latency percentiles. Start the server first, then e.g.
+//   mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="--concurrency 64 --seconds 30"
+// Without URLs it cycles through local-only endpoints (gazetteer geocoding, distance, nearest
+// stations), so it measures the server rather than Nominatim or OpenWeather.
+public class ServerLoadTest {
+
+    private static final String DEFAULT_BASE = "http://localhost:" + SmartCityServer.DEFAULT_PORT;
+    private static final List<String> DEFAULT_PATHS = List.of(
+            "/api/geocode?q=Rangpur",
+            "/api/geocode?q=Dinajpur%2C%20Bangladesh",
+            "/api/distance?from=Rangpur&to=Dhaka",
+            "/api/distance?from=Sylhet&to=Khulna",
+            "/api/stations/nearest?lat=25.7439&lon=89.2510&k=5",
+            "/api/stations/nearest?lat=25.75&lon=89.26&k=10&maxKm=5",
+            "/health");
+
+    private record Worker(long[] latencies, int count, int errors) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = 32;
+        int seconds = 20;
+        int warmup = 5;
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                default -> uris.add(URI.create(args[i]));
+            }
+        }
+        if (uris.isEmpty()) {
+            for (String path : DEFAULT_PATHS) {
+                uris.add(URI.create(DEFAULT_BASE + path));
+            }
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        System.out.printf(Locale.ROOT, "%d clients, %d s warmup, %d s measured, %d URLs%n", concurrency, warmup, seconds, uris.size());
+        run(client, uris, concurrency, warmup);
+        Result result = run(client, uris, concurrency, seconds);
+        result.print(seconds);
+    }
+
+    private static Result run(HttpClient client, List<URI> uris, int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<Worker>> futures = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int offset = c; // start the clients on different URLs
+                futures.add(clients.submit(() -> work(client, uris, offset, deadline)));
+            }
+        }
+        Result result = new Result();
+        for (Future<Worker> future : futures) {
+            result.add(future.get());
+        }
+        return result;
+    }
+
+    private static Worker work(HttpClient client, List<URI> uris, int offset, long deadline) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        int errors = 0;
+        for (int i = offset; System.nanoTime() < deadline; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size())).timeout(Duration.ofSeconds(30)).GET().build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() != 200) {
+                    errors++;
+                }
+            } catch (Exception e) {
+                errors++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return new Worker(latencies, count, errors);
+    }
+
+    private static final class Result {
+        private long[] latencies = new long[0];
+        private int count;
+        private int errors;
+
+        void add(Worker worker) {
+            latencies = Arrays.copyOf(latencies, count + worker.count());
+            System.arraycopy(worker.latencies(), 0, latencies, count, worker.count());
+            count += worker.count();
+            errors += worker.errors();
+        }
+
+        void print(int seconds) {
+            Arrays.sort(latencies, 0, count);
+            System.out.printf(Locale.ROOT, "requests: %d (%d errors)%n", count, errors);
+            System.out.printf(Locale.ROOT, "throughput: %.0f req/s%n", count / (double) seconds);
+            System.out.printf(Locale.ROOT, "latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    percentile(0.50), percentile(0.90), percentile(0.99), percentile(0.999), percentile(1.0));
+        }
+
+        private double percentile(double p) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            int index = Math.min(count - 1, (int) Math.ceil(p * count) - 1);
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
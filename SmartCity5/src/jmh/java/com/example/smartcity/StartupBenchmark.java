@@ -0,0 +1,96 @@
+package com.example.smartcity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Cold-start benchmark for the jlink image (mvn -Pfast-start package). Starts the app --runs times per
+// configuration with "--startup-run" (see StartupRun), which opens the menu and every window and
+// prints the StartupTrace marks, then reports the median and best time of each mark in ms since
+// process start. Configurations: the image as shipped (with its CDS archive) and with -Xshare:off.
+// One unmeasured run goes first so every configuration sees a warm file cache. Needs a display.
+//   mvn -Pbenchmarks test-compile exec:exec@startup-benchmark -Dstartup.args="--runs 10"
+public class StartupBenchmark {
+
+    private static final String MAIN = "com.example.smartcity/com.example.smartcity.SmartCity";
+    private static final long RUN_TIMEOUT_SECONDS = 300;
+
+    public static void main(String[] args) throws Exception {
+        Path image = Path.of("target", "app");
+        int runs = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--image" -> image = Path.of(args[++i]);
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("unknown argument " + args[i]);
+            }
+        }
+        Path java = image.resolve("bin").resolve("java");
+        if (!Files.isExecutable(java)) {
+            throw new IllegalStateException(java + " not found; build the image with mvn -Pfast-start package");
+        }
+
+        Map<String, List<String>> configurations = new LinkedHashMap<>();
+        configurations.put("cds", List.of());
+        configurations.put("no-cds", List.of("-Xshare:off"));
+
+        run(java, List.of());
+        for (Map.Entry<String, List<String>> configuration : configurations.entrySet()) {
+            Map<String, List<Long>> marks = new LinkedHashMap<>();
+            for (int r = 0; r < runs; r++) {
+                run(java, configuration.getValue()).forEach((mark, millis) ->
+                        marks.computeIfAbsent(mark, key -> new ArrayList<>()).add(millis));
+            }
+            System.out.printf(Locale.ROOT, "%n%s (%d runs)%n", configuration.getKey(), runs);
+            System.out.printf(Locale.ROOT, "  %-26s %10s %10s%n", "mark", "median ms", "best ms");
+            marks.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue((a, b) -> Long.compare(median(a), median(b))))
+                    .forEach(entry -> System.out.printf(Locale.ROOT, "  %-26s %10d %10d%n",
+                            entry.getKey(), median(entry.getValue()), entry.getValue().stream().mapToLong(Long::longValue).min().orElse(0)));
+        }
+    }
+
+    // One start of the app; the marks it printed, in order
+    private static Map<String, Long> run(Path java, List<String> vmOptions) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(java.toString());
+        command.addAll(vmOptions);
+        command.addAll(List.of("-m", MAIN, StartupRun.ARGUMENT));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        Map<String, Long> marks = new LinkedHashMap<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                String[] fields = line.split(" ");
+                if (fields.length == 3 && fields[0].equals("startup")) {
+                    marks.put(fields[1], Long.parseLong(fields[2]));
+                }
+            }
+        }
+        if (!process.waitFor(RUN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("startup run did not finish: " + command);
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("startup run failed (exit " + process.exitValue() + "): " + command);
+        }
+        return marks;
+    }
+
+    private static long median(List<Long> values) {
+        long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.smartcity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Nearest-station queries against a synthetic national dataset (stations scattered over Bangladesh),
+// with the old linear haversine scan as the baseline.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StationIndexBenchmark {
+
+    // Bounding box of Bangladesh
+    private static final double MIN_LAT = 20.6;
+    private static final double MAX_LAT = 26.6;
+    private static final double MIN_LON = 88.0;
+    private static final double MAX_LON = 92.7;
+
+    @Param({"1000", "100000", "1000000"})
+    public int stations;
+
+    private double[] lat;
+    private double[] lon;
+    private GeoKdTree index;
+    // Queries are precomputed and cycled through, so no per-call setup is timed
+    private final double[] queryLats = new double[1024];
+    private final double[] queryLons = new double[1024];
+    private int next;
+    private double queryLat;
+    private double queryLon;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        SplittableRandom seed = new SplittableRandom(42);
+        lat = new double[stations];
+        lon = new double[stations];
+        for (int i = 0; i < stations; i++) {
+            lat[i] = seed.nextDouble(MIN_LAT, MAX_LAT);
+            lon[i] = seed.nextDouble(MIN_LON, MAX_LON);
+        }
+        index = GeoKdTree.build(lat, lon);
+        for (int i = 0; i < queryLats.length; i++) {
+            queryLats[i] = seed.nextDouble(MIN_LAT, MAX_LAT);
+            queryLons[i] = seed.nextDouble(MIN_LON, MAX_LON);
+        }
+    }
+
+    private void nextQuery() {
+        next = (next + 1) & (queryLats.length - 1);
+        queryLat = queryLats[next];
+        queryLon = queryLons[next];
+    }
+
+    @Benchmark
+    public List<GeoKdTree.Hit> nearest1() {
+        nextQuery();
+        return index.nearest(queryLat, queryLon, 1, Double.POSITIVE_INFINITY);
+    }
+
+    @Benchmark
+    public List<GeoKdTree.Hit> nearest10() {
+        nextQuery();
+        return index.nearest(queryLat, queryLon, 10, Double.POSITIVE_INFINITY);
+    }
+
+    @Benchmark
+    public List<GeoKdTree.Hit> within5Km() {
+        nextQuery();
+        return index.withinRadius(queryLat, queryLon, 5);
+    }
+
+    @Benchmark
+    public int linearScanNearest() {
+        nextQuery();
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < stations; i++) {
+            double d = haversine(queryLat, queryLon, lat[i], lon[i]);
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // The per-station haversine the finder ran before it had an index
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.sin(dLon / 2) * Math.sin(dLon / 2) * Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2));
+        return 6371 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
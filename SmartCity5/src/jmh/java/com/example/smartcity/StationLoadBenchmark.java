@@ -0,0 +1,104 @@
+package com.example.smartcity;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Opening the fire station data: the original loadFireStationsFromJson (lines -> org.json tree -> objects),
+// the streaming JSON reader, and mapping the binary store. "4" is the bundled Rangpur file's size.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StationLoadBenchmark {
+
+    @Param({"4", "10000", "100000"})
+    public int stations;
+
+    private Path json;
+    private Path store;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        List<FireStation> list = new ArrayList<>(stations);
+        StringBuilder text = new StringBuilder("[\n");
+        for (int i = 0; i < stations; i++) {
+            FireStation station = new FireStation(random.nextDouble(20.6, 26.6), random.nextDouble(88.0, 92.7),
+                    String.format(Locale.ROOT, "+88017%08d", i), "Fire Service & Civil Defence Station " + i);
+            list.add(station);
+            text.append(String.format(Locale.ROOT,
+                    "  {\n    \"name\": \"%s\",\n    \"latitude\": %.4f,\n    \"longitude\": %.4f,\n    \"phoneNumber\": \"%s\"\n  }%s\n",
+                    station.name, station.latitude, station.longitude, station.phoneNumber, i + 1 < stations ? "," : ""));
+        }
+        text.append("]\n");
+        json = Files.createTempFile("stations", ".json");
+        Files.writeString(json, text);
+        store = Files.createTempFile("stations", ".stations");
+        StationStore.write(list, store);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(json);
+        Files.deleteIfExists(store);
+    }
+
+    @Benchmark
+    public List<FireStation> orgJsonTree() throws IOException {
+        List<FireStation> result = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(json)))) {
+            StringBuilder jsonContent = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                jsonContent.append(line);
+            }
+            JSONArray jsonArray = new JSONArray(jsonContent.toString());
+            for (int i = 0; i < jsonArray.length(); i++) {
+                JSONObject stationJson = jsonArray.getJSONObject(i);
+                result.add(new FireStation(stationJson.getDouble("latitude"), stationJson.getDouble("longitude"),
+                        stationJson.getString("phoneNumber"), stationJson.getString("name")));
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<FireStation> pullParser() throws IOException {
+        try (InputStream in = Files.newInputStream(json)) {
+            return StationStore.readJson(in);
+        }
+    }
+
+    // Mapping plus one nearest-station query, i.e. everything needed before the first result
+    @Benchmark
+    public List<GeoKdTree.Hit> mappedStore() throws IOException {
+        return StationStore.open(store).index().nearest(25.7439, 89.2510, 1, Double.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.smartcity;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// The non-UI work of a weather refresh: turning an OpenWeather response into the displayed values.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherBenchmark {
+
+    // A real /data/2.5/weather?q=Rangpur&units=metric response
+    private static final byte[] RESPONSE = ("{\"coord\":{\"lon\":89.25,\"lat\":25.75},"
+            + "\"weather\":[{\"id\":802,\"main\":\"Clouds\",\"description\":\"scattered clouds\",\"icon\":\"03d\"}],"
+            + "\"base\":\"stations\",\"main\":{\"temp\":31.42,\"feels_like\":36.8,\"temp_min\":31.42,\"temp_max\":31.42,"
+            + "\"pressure\":1004,\"humidity\":63,\"sea_level\":1004,\"grnd_level\":1000},\"visibility\":10000,"
+            + "\"wind\":{\"speed\":3.62,\"deg\":128,\"gust\":4.1},\"clouds\":{\"all\":40},\"dt\":1723190400,"
+            + "\"sys\":{\"type\":1,\"id\":9145,\"country\":\"BD\",\"sunrise\":1723160102,\"sunset\":1723207920},"
+            + "\"timezone\":21600,\"id\":1185188,\"name\":\"Rangpur\",\"cod\":200}").getBytes(StandardCharsets.UTF_8);
+
+    private double degrees;
+    private long timestamp = 1723160102;
+
+    // What fetchWeatherData + updateUI used to do: String -> JSONObject tree -> fields
+    @Benchmark
+    public Object orgJsonTree() {
+        JSONObject jsonObject = new JSONObject(new String(RESPONSE, StandardCharsets.UTF_8));
+        JSONObject main = jsonObject.getJSONObject("main");
+        JSONObject wind = jsonObject.getJSONObject("wind");
+        JSONObject weather = jsonObject.getJSONArray("weather").getJSONObject(0);
+        JSONObject sys = jsonObject.getJSONObject("sys");
+        return new WeatherReport(jsonObject.getLong("id"), jsonObject.getString("name"), main.getDouble("temp"), main.getInt("humidity"),
+                wind.getDouble("speed"), wind.getDouble("deg"), weather.getString("description"),
+                weather.getString("icon"), sys.getLong("sunrise"), sys.getLong("sunset"));
+    }
+
+    @Benchmark
+    public WeatherReport pullParser() throws IOException {
+        return WeatherReport.parse(new ByteArrayInputStream(RESPONSE));
+    }
+
+    // Everything updateUI displays, formatted once per report
+    @Benchmark
+    public WeatherSnapshot snapshot() throws IOException {
+        return WeatherSnapshot.of(WeatherReport.parse(new ByteArrayInputStream(RESPONSE)), null, null);
+    }
+
+    @Benchmark
+    public String windDirection() {
+        degrees = degrees >= 359 ? 0 : degrees + 7.3;
+        return WeatherSnapshot.windDirection(degrees);
+    }
+
+    @Benchmark
+    public String formatTime() {
+        timestamp += 61;
+        return WeatherSnapshot.formatTime(timestamp);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.smartcity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Per-user locations for the files the app keeps between launches (caches, stores).
+final class AppPaths {
+
+    private static final String CACHE_DIR_PROPERTY = "smartcity.cacheDir";
+
+    private AppPaths() {
+    }
+
+    static Path cacheDir() {
+        String override = System.getProperty(CACHE_DIR_PROPERTY);
+        Path dir = override != null && !override.isBlank()
+                ? Path.of(override)
+                : Path.of(System.getProperty("user.home"), ".smartcity");
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            System.err.println("Could not create cache directory " + dir + ": " + e.getMessage());
+        }
+        return dir;
+    }
+
+    static Path cacheFile(String name) {
+        return cacheDir().resolve(name);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.smartcity;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// A directory of small downloaded files (icons, map images) capped at a total size. A file's
+// last-modified time doubles as its last-used time, and the least recently used files are deleted
+// whenever a write pushes the directory over the cap. Names are used as file names as-is, so callers
+// must only pass safe ones.
+final class DiskLru {
+
+    private final Path dir;
+    private final long maxBytes;
+
+    DiskLru(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    // null if the file isn't stored (or can't be read)
+    byte[] read(String name) {
+        Path file = dir.resolve(name);
+        try {
+            byte[] data = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return data;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    boolean contains(String name) {
+        return Files.exists(dir.resolve(name));
+    }
+
+    void write(String name, byte[] data) {
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve(name);
+            Path tmp = file.resolveSibling(name + ".tmp");
+            Files.write(tmp, data);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            trim();
+        } catch (IOException e) {
+            System.err.println("Could not store " + name + " in " + dir + ": " + e.getMessage());
+        }
+    }
+
+    // Deletes least recently used files until the directory fits in maxBytes
+    private synchronized void trim() throws IOException {
+        List<Path> files = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                if (!file.getFileName().toString().endsWith(".tmp")) {
+                    files.add(file);
+                    total += Files.size(file);
+                }
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        files.sort(Comparator.comparing(DiskLru::lastModified));
+        for (Path file : files) {
+            if (total <= maxBytes) {
+                break;
+            }
+            long size = Files.size(file);
+            Files.deleteIfExists(file);
+            total -= size;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
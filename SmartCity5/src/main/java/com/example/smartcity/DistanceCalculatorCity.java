@@ -13,15 +13,13 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.util.Duration;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class DistanceCalculatorCity extends Application {
 
@@ -33,7 +31,29 @@ public class DistanceCalculatorCity extends Application {
     private TextField endLocationField;
     private static final double BEGUM_ROKEYA_UNIVERSITY_LAT = 25.7629;
     private static final double BEGUM_ROKEYA_UNIVERSITY_LON = 89.2498;
+    private static final int MAP_ZOOM = 12;
+    private static final int MAP_WIDTH = 500;
+    private static final int MAP_HEIGHT = 400;
+    // Geocoding is network-bound, so every lookup gets its own virtual thread
+    private static final ExecutorService GEOCODE_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    // -Dsmartcity.cacheStats=true prints the geocoding statistics when the window closes
+    private static final boolean PRINT_CACHE_STATS = Boolean.getBoolean("smartcity.cacheStats");
+    private final Gazetteer gazetteer;
+    private final Geocoder geocoder;
+    private final LatestRequest locationRequest = new LatestRequest();
+    private final LatestRequest distanceRequest = new LatestRequest();
+    private final LatestRequest mapRequest = new LatestRequest();
+    private final MapTileCache mapTiles;
+
+    public DistanceCalculatorCity() {
+        this(new ServiceContext());
+    }
 
+    DistanceCalculatorCity(ServiceContext services) {
+        this.gazetteer = services.gazetteer();
+        this.geocoder = services.geocoder();
+        this.mapTiles = services.mapTiles();
+    }
 
     @Override
     public void start(Stage primaryStage) {
@@ -54,6 +74,10 @@ public class DistanceCalculatorCity extends Application {
         endLocationField.setFont(Font.font("Arial", 18));
         endLocationField.setPrefWidth(400);
 
+        // Type-ahead from the offline gazetteer
+        LocationSuggestions.attach(startLocationField, gazetteer, GEOCODE_EXECUTOR);
+        LocationSuggestions.attach(endLocationField, gazetteer, GEOCODE_EXECUTOR);
+
 
         Button currentLocationButton = createStyledButton("Use Rangpur as Location", Color.web("#4CAF50"), Color.web("#2E7D32"));
         Button showCurrentLocationButton = createStyledButton("Show Current Location", Color.web("#FF9800"), Color.web("#F57C00"));
@@ -63,7 +87,7 @@ public class DistanceCalculatorCity extends Application {
         resultLabel.setTextFill(Color.web("#000000")); // Black
         // Map Image View
         mapImageView = new ImageView();
-        mapImageView.setFitWidth(500);
+        mapImageView.setFitWidth(MAP_WIDTH);
         mapImageView.setPreserveRatio(true);
 
         // Set Rangpur as default location
@@ -80,35 +104,7 @@ public class DistanceCalculatorCity extends Application {
         showCurrentLocationButton.setOnAction(e -> showBegumRokeyaUniversityLocation());
 
         // Calculate distance
-        calculateButton.setOnAction(e -> {
-            try {
-                String startLocationText = startLocationField.getText();
-                String endLocationText = endLocationField.getText();
-
-
-                if (startLocationText.trim().isEmpty() || endLocationText.trim().isEmpty()) {
-                    resultLabel.setText("Please fill in both location fields!");
-                    return;
-                }
-
-                double[] startCoords = startLocationText.equals("Rangpur, Bangladesh") ?
-                        new double[]{currentLat, currentLon} : getCoordinates(startLocationText);
-
-                double[] endCoords = getCoordinates(endLocationText);
-
-
-                if (startCoords == null || endCoords == null) {
-                    resultLabel.setText("Invalid locations! Please enter valid city or country names.");
-                    return;
-                }
-
-                double distance = haversine(startCoords[0], startCoords[1], endCoords[0], endCoords[1]);
-                resultLabel.setText("Distance: " + String.format("%.2f", distance) + " km");
-                loadMapImage(startCoords[0], startCoords[1]);
-            } catch (Exception ex) {
-                resultLabel.setText("Error fetching data! Please try again.");
-            }
-        });
+        calculateButton.setOnAction(e -> calculateDistance());
 
         // Layout
         VBox layout = new VBox(10, startLabel, startLocationField, currentLocationButton, showCurrentLocationButton, endLabel, endLocationField,
@@ -121,13 +117,18 @@ public class DistanceCalculatorCity extends Application {
         // Scene
         Scene scene = new Scene(layout, 600, 800);
         primaryStage.setScene(scene);
+        primaryStage.setOnHidden(e -> {
+            if (PRINT_CACHE_STATS) {
+                System.out.println(geocoder.stats());
+            }
+            geocoder.flush();
+        });
         primaryStage.show();
     }
 
     private void setDefaultLocation(String cityName) {
-        try {
-            double[] coords = getCoordinates(cityName);
-
+        locationRequest.cancel();
+        locationRequest.whenDone(lookupAsync(cityName), coords -> {
             if (coords != null) {
                 currentLat = coords[0];
                 currentLon = coords[1];
@@ -137,14 +138,54 @@ public class DistanceCalculatorCity extends Application {
                 startLocationField.setText("Rangpur, Bangladesh (Location not found)");
                 resultLabel.setText("Could not find default city's location");
             }
-        } catch (Exception e) {
+            StartupTrace.mark(StartupTrace.DISTANCE_RESULT);
+        }, error -> {
             resultLabel.setText("Error setting default location! Please try again.");
             startLocationField.setText("Rangpur, Bangladesh (Error)");
+            StartupTrace.mark(StartupTrace.DISTANCE_RESULT);
+        });
+    }
+
+    private void calculateDistance() {
+        String startLocationText = startLocationField.getText();
+        String endLocationText = endLocationField.getText();
+
+        if (startLocationText.trim().isEmpty() || endLocationText.trim().isEmpty()) {
+            distanceRequest.cancel();
+            resultLabel.setText("Please fill in both location fields!");
+            return;
         }
+
+        // Start and end are resolved at the same time; a newer click supersedes this one
+        distanceRequest.cancel();
+        CompletableFuture<double[]> startLookup = startLocationText.equals("Rangpur, Bangladesh") ?
+                CompletableFuture.completedFuture(new double[]{currentLat, currentLon}) :
+                distanceRequest.track(lookupAsync(startLocationText));
+        CompletableFuture<double[]> endLookup = distanceRequest.track(lookupAsync(endLocationText));
+        resultLabel.setText("Calculating...");
+
+        distanceRequest.whenDone(startLookup.thenCombine(endLookup, (start, end) -> new double[][]{start, end}), coords -> {
+            double[] startCoords = coords[0];
+            double[] endCoords = coords[1];
+            if (startCoords == null || endCoords == null) {
+                resultLabel.setText("Invalid locations! Please enter valid city or country names.");
+                return;
+            }
+
+            double distance = GeoMath.haversineKm(startCoords[0], startCoords[1], endCoords[0], endCoords[1]);
+            resultLabel.setText("Distance: " + String.format("%.2f", distance) + " km");
+            loadMapImage(startCoords[0], startCoords[1]);
+        }, error -> resultLabel.setText("Error fetching data! Please try again."));
+    }
+
+    // Cancelled by a newer lookup, which also drops a Nominatim request that is still queued
+    private CompletableFuture<double[]> lookupAsync(String location) {
+        return LatestRequest.supplyInterruptibly(() -> getCoordinates(location), GEOCODE_EXECUTOR);
     }
 
 
     private void showBegumRokeyaUniversityLocation() {
+        locationRequest.cancel();
         currentLat = BEGUM_ROKEYA_UNIVERSITY_LAT;
         currentLon = BEGUM_ROKEYA_UNIVERSITY_LON;
         startLocationField.setText("Begum Rokeya University, Rangpur");
@@ -154,49 +195,7 @@ public class DistanceCalculatorCity extends Application {
 
 
     private String getCityName(double latitude, double longitude) {
-        try {
-
-            String urlString = "https://nominatim.openstreetmap.org/reverse?format=jsonv2&lat=" +
-                    latitude + "&lon=" + longitude + "&accept-language=en";
-
-
-            HttpURLConnection conn = (HttpURLConnection) new URL(urlString).openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("User-Agent", "Mozilla/5.0");
-
-            InputStreamReader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
-            Scanner scanner = new Scanner(reader);
-            StringBuilder response = new StringBuilder();
-
-            while (scanner.hasNext()) {
-                response.append(scanner.nextLine());
-            }
-            scanner.close();
-
-            JSONObject json = new JSONObject(response.toString());
-
-            if (json.has("address")) {
-                JSONObject address = json.getJSONObject("address");
-                if (address.has("city")){
-                    return  address.getString("city");
-                } else if (address.has("town")){
-                    return address.getString("town");
-                }else if (address.has("village")){
-                    return address.getString("village");
-                }else if (address.has("county")){
-                    return address.getString("county");
-                }
-                else {
-                    return null;
-                }
-            }
-            return null;
-
-
-        } catch (Exception e) {
-            return null;
-        }
-
+        return geocoder.placeName(latitude, longitude, NominatimScheduler.Priority.BACKGROUND);
     }
     private Button createStyledButton(String text, Color startColor, Color endColor) {
         Button button = new Button(text);
@@ -250,55 +249,32 @@ public class DistanceCalculatorCity extends Application {
 
 
 
+    // Null if the place doesn't exist; a failed lookup fails the future, so the error message is shown
     private double[] getCoordinates(String location) {
         try {
-            String urlString = "https://nominatim.openstreetmap.org/search?q=" +
-                    URLEncoder.encode(location, StandardCharsets.UTF_8) + "&format=json&limit=1";
-            HttpURLConnection conn = (HttpURLConnection) new URL(urlString).openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("User-Agent", "Mozilla/5.0");
-
-            InputStreamReader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
-            Scanner scanner = new Scanner(reader);
-            StringBuilder response = new StringBuilder();
-
-            while (scanner.hasNext()) {
-                response.append(scanner.nextLine());
-            }
-            scanner.close();
-
-            JSONArray jsonArray = new JSONArray(response.toString());
-            if (jsonArray.length() == 0) return null;
-
-            JSONObject json = jsonArray.getJSONObject(0);
-            return new double[]{json.getDouble("lat"), json.getDouble("lon")};
-        } catch (Exception e) {
-            return null;
+            return geocoder.coordinates(location, NominatimScheduler.Priority.INTERACTIVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
         }
     }
 
     private void loadMapImage(double lat, double lon) {
-        try {
-            String mapUrl = "https://static-maps.yandex.ru/1.x/?lang=en-US&ll=" + lon + "," + lat + "&z=12&size=500,400";
-            Image mapImage = new Image(mapUrl);
-            mapImageView.setImage(mapImage);
-        } catch (Exception e) {
-            System.out.println("Error loading map image: " + e.getMessage());
+        mapRequest.cancel();
+        MapTileCache.Tile tile = MapTileCache.Tile.around(lat, lon, MAP_ZOOM, MAP_WIDTH, MAP_HEIGHT);
+        Image cached = mapTiles.cached(tile);
+        if (cached != null) {
+            mapImageView.setImage(cached);
+        } else {
+            mapRequest.whenDone(mapTiles.load(tile), mapImageView::setImage,
+                    error -> System.out.println("Error loading map image: " + error.getMessage()));
         }
+        mapTiles.prefetchAround(tile);
     }
 
 
-    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
-
     public static void main(String[] args) {
         launch(args);
     }
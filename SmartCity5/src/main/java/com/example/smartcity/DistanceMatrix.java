@@ -0,0 +1,151 @@
+package com.example.smartcity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Great-circle distances from every origin to every destination (e.g. incidents x stations), written
+// into a flat row-major matrix: distance from origin i to destination j is at [i * destinations + j].
+//
+// Every point is converted to a unit vector once; after that each pair costs a handful of
+// multiply-adds, a sqrt and GeoMath's arcsine (a short polynomial for regional distances), with no
+// per-pair toRadians/sin/cos. The result is the same spherical distance haversine gives.
+// Rows are split across the common fork/join pool.
+public final class DistanceMatrix {
+
+    // Rows per task below which a task stops splitting
+    private static final int MIN_ROWS_PER_TASK = 16;
+
+    private DistanceMatrix() {
+    }
+
+    // A set of coordinates converted once for repeated use, e.g. all stations
+    public static final class Points {
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+
+        private Points(double[] x, double[] y, double[] z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        // lat/lon in degrees
+        public static Points of(double[] lat, double[] lon) {
+            if (lat.length != lon.length) {
+                throw new IllegalArgumentException("lat and lon must have the same length");
+            }
+            int n = lat.length;
+            double[] x = new double[n];
+            double[] y = new double[n];
+            double[] z = new double[n];
+            double[] unit = new double[3];
+            for (int i = 0; i < n; i++) {
+                GeoMath.unitVector(lat[i], lon[i], unit, 0);
+                x[i] = unit[0];
+                y[i] = unit[1];
+                z[i] = unit[2];
+            }
+            return new Points(x, y, z);
+        }
+
+        public int size() {
+            return x.length;
+        }
+    }
+
+    // Allocates and fills a new origins.size() x destinations.size() matrix, in km
+    public static double[] compute(double[] originLat, double[] originLon, double[] destinationLat, double[] destinationLon) {
+        Points origins = Points.of(originLat, originLon);
+        Points destinations = Points.of(destinationLat, destinationLon);
+        double[] out = new double[checkedSize(origins, destinations)];
+        compute(origins, destinations, out);
+        return out;
+    }
+
+    public static void compute(Points origins, Points destinations, double[] out) {
+        if (out.length < checkedSize(origins, destinations)) {
+            throw new IllegalArgumentException("result matrix too small");
+        }
+        ForkJoinPool.commonPool().invoke(new RowTask(origins, destinations, out, null, 0, origins.size()));
+    }
+
+    // Single precision halves the footprint (10k x 10k is 400 MB instead of 800 MB); still ~1 m resolution
+    public static void compute(Points origins, Points destinations, float[] out) {
+        if (out.length < checkedSize(origins, destinations)) {
+            throw new IllegalArgumentException("result matrix too small");
+        }
+        ForkJoinPool.commonPool().invoke(new RowTask(origins, destinations, null, out, 0, origins.size()));
+    }
+
+    private static int checkedSize(Points origins, Points destinations) {
+        long size = (long) origins.size() * destinations.size();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("matrix of " + size + " entries does not fit in one array");
+        }
+        return (int) size;
+    }
+
+    private static final class RowTask extends RecursiveAction {
+        private final Points origins;
+        private final Points destinations;
+        private final double[] doubleOut;
+        private final float[] floatOut;
+        private final int from;
+        private final int to;
+
+        RowTask(Points origins, Points destinations, double[] doubleOut, float[] floatOut, int from, int to) {
+            this.origins = origins;
+            this.destinations = destinations;
+            this.doubleOut = doubleOut;
+            this.floatOut = floatOut;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MIN_ROWS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(origins, destinations, doubleOut, floatOut, from, mid),
+                        new RowTask(origins, destinations, doubleOut, floatOut, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (doubleOut != null) {
+                    fillRow(i, doubleOut);
+                } else {
+                    fillRow(i, floatOut);
+                }
+            }
+        }
+
+        private void fillRow(int i, double[] out) {
+            double ox = origins.x[i];
+            double oy = origins.y[i];
+            double oz = origins.z[i];
+            double[] dx = destinations.x;
+            double[] dy = destinations.y;
+            double[] dz = destinations.z;
+            int n = dx.length;
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                out[row + j] = GeoMath.chordKm(ox - dx[j], oy - dy[j], oz - dz[j]);
+            }
+        }
+
+        private void fillRow(int i, float[] out) {
+            double ox = origins.x[i];
+            double oy = origins.y[i];
+            double oz = origins.z[i];
+            double[] dx = destinations.x;
+            double[] dy = destinations.y;
+            double[] dz = destinations.z;
+            int n = dx.length;
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                out[row + j] = (float) GeoMath.chordKm(ox - dx[j], oy - dy[j], oz - dz[j]);
+            }
+        }
+    }
+}
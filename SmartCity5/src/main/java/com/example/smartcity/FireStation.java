@@ -0,0 +1,15 @@
+package com.example.smartcity;
+
+class FireStation {
+    double latitude;
+    double longitude;
+    String phoneNumber;
+    String name;
+
+    public FireStation(double latitude, double longitude, String phoneNumber, String name) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.phoneNumber = phoneNumber;
+        this.name = name;
+    }
+}
\ No newline at end of file
@@ -3,75 +3,141 @@ package com.example.smartcity;
 import javafx.animation.FadeTransition;
 import javafx.animation.ScaleTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextField;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.util.Duration;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class FireStationApp extends Application {
 
     private static final double USER_LAT = 25.7439;
     private static final double USER_LON = 89.2510;
-    private static final String JSON_FILE = "rangpur_firestations.json";
-    private List<FireStation> fireStations;
+    static final String STATION_FILE = "rangpur_firestations.stations";
+    private static final int DEFAULT_RESULT_COUNT = 5;
+    private static final int MAX_RESULT_COUNT = 10_000;
+    private final ServiceContext services;
+    private final Gazetteer gazetteer;
+    // set on the FX thread once the shared store is loaded
+    private StationStore stationStore;
+    // the button was clicked before the store was loaded; search once it is
+    private boolean searchPending;
     private VBox fireStationLayout;
+    private Spinner<Integer> resultCountSpinner;
+    private TextField maxRadiusField;
+    private ListView<StationResult> resultList;
+    private Label noStationLabel;
+    private Label invalidRadiusLabel;
+
+    // One row of the result list; the station itself is only read from the store when its row is shown
+    private record StationResult(int rank, int stationId, double distanceKm) {
+    }
+
+    public FireStationApp() {
+        this(new ServiceContext());
+    }
+
+    FireStationApp(ServiceContext services) {
+        this.services = services;
+        this.gazetteer = services.gazetteer();
+    }
 
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("Fire Station Finder");
 
         Button findStationButton = createStyledButton("Find Nearby Fire Station", Color.web("#2196F3"), Color.web("#1565C0"));
+        findStationButton.setId("findStationButton");
 
         fireStationLayout = new VBox(10); // Initialize fireStationLayout
         fireStationLayout.setPadding(new Insets(20));
         fireStationLayout.setAlignment(Pos.TOP_CENTER);
-
+        VBox.setVgrow(fireStationLayout, Priority.ALWAYS);
+
+        // Virtualized: only the rows in view get cells, and cells are recycled while scrolling
+        resultList = new ListView<>();
+        resultList.setCellFactory(list -> new StationCell());
+        resultList.setStyle("-fx-background-color: transparent; -fx-control-inner-background: #2c3e50;");
+        resultList.setFocusTraversable(false);
+        VBox.setVgrow(resultList, Priority.ALWAYS);
+
+        noStationLabel = new Label("No Fire Station Found");
+        noStationLabel.setFont(Font.font("Arial", 16));
+        noStationLabel.setTextFill(Color.WHITE);
+
+        invalidRadiusLabel = new Label("\"Within (km)\" must be a positive number, or empty for any distance");
+        invalidRadiusLabel.setFont(Font.font("Arial", 16));
+        invalidRadiusLabel.setTextFill(Color.RED);
+
+        // How many stations to show, and optionally how far away they may be
+        Label resultCountLabel = new Label("Show nearest:");
+        resultCountLabel.setFont(Font.font("Arial", 14));
+        resultCountLabel.setTextFill(Color.WHITE);
+        resultCountSpinner = new Spinner<>(1, MAX_RESULT_COUNT, DEFAULT_RESULT_COUNT);
+        resultCountSpinner.setEditable(true);
+        resultCountSpinner.setPrefWidth(100);
+
+        Label maxRadiusLabel = new Label("Within (km):");
+        maxRadiusLabel.setFont(Font.font("Arial", 14));
+        maxRadiusLabel.setTextFill(Color.WHITE);
+        maxRadiusField = new TextField();
+        maxRadiusField.setPromptText("any");
+        maxRadiusField.setPrefWidth(80);
+
+        HBox queryOptions = new HBox(10, resultCountLabel, resultCountSpinner, maxRadiusLabel, maxRadiusField);
+        queryOptions.setAlignment(Pos.CENTER);
 
         // Main layout
-        VBox mainLayout = new VBox(20, findStationButton, fireStationLayout);
+        VBox mainLayout = new VBox(20, findStationButton, queryOptions, fireStationLayout);
         mainLayout.setBackground(new Background(new BackgroundFill(Color.web("#2c3e50"), CornerRadii.EMPTY, null))); // Dark background
         mainLayout.setPadding(new Insets(20));
         mainLayout.setAlignment(Pos.CENTER);
 
 
 
-        // Load fire station data during start, only when first time button is clicked
-        try {
-            fireStations = loadFireStationsFromJson();
-        } catch (Exception e) {
-            Label errorLabel = new Label("Error loading fire station data: " + e.getMessage());
-            errorLabel.setTextFill(Color.RED);
-            VBox errorLayout = new VBox(errorLabel);
-            errorLayout.setAlignment(Pos.CENTER);
-            errorLayout.setPadding(new Insets(20));
-            Scene errorScene = new Scene(errorLayout, 400, 200);
-            primaryStage.setScene(errorScene);
-            primaryStage.show();
-            return;
+        // The store is shared by all windows and usually already loaded in the background while the
+        // menu was open, so a reopened window never touches the disk
+        CompletableFuture<StationStore> stations = services.stations();
+        if (stations.isDone() && !stations.isCompletedExceptionally()) {
+            stationStore = stations.join();
+        } else {
+            stations.whenComplete((store, error) -> Platform.runLater(() -> {
+                boolean search = searchPending;
+                searchPending = false;
+                if (error != null) {
+                    showLoadError(primaryStage, error);
+                    return;
+                }
+                stationStore = store;
+                if (search) {
+                    showNearestStations();
+                }
+            }));
         }
 
-
-
-        // Button action to show fire stations
+        // Button action to show fire stations; clicks during loading add up to one search once the stations are in
         findStationButton.setOnAction(e -> {
-            fireStationLayout.getChildren().clear(); // Clear previous results
-            VBox fireStationDisplay = createFireStationDisplay(); // Get the result after button click
-            fireStationLayout.getChildren().add(fireStationDisplay);
+            if (stationStore != null) {
+                showNearestStations();
+            } else {
+                searchPending = true;
+            }
         });
 
 
@@ -81,116 +147,130 @@ public class FireStationApp extends Application {
         primaryStage.show();
     }
 
+    private void showLoadError(Stage primaryStage, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        Label errorLabel = new Label("Error loading fire station data: " + cause.getMessage());
+        errorLabel.setTextFill(Color.RED);
+        VBox errorLayout = new VBox(errorLabel);
+        errorLayout.setAlignment(Pos.CENTER);
+        errorLayout.setPadding(new Insets(20));
+        Scene errorScene = new Scene(errorLayout, 400, 200);
+        primaryStage.setScene(errorScene);
+        primaryStage.show();
+    }
+
 
-    private List<FireStation> loadFireStationsFromJson() throws Exception {
-        List<FireStation> stations = new ArrayList<>();
-        InputStream inputStream = getClass().getResourceAsStream("/" + JSON_FILE);
-        if (inputStream == null) {
-            throw new Exception("Could not find JSON file: " + JSON_FILE);
+    private void showNearestStations() {
+        double maxRadius = readMaxRadius();
+        if (Double.isNaN(maxRadius)) {
+            resultList.getItems().clear();
+            fireStationLayout.getChildren().setAll(invalidRadiusLabel);
+            return;
         }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            StringBuilder jsonContent = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonContent.append(line);
-            }
+        // Only the k closest (optionally within the radius) are selected, already sorted by distance
+        List<GeoKdTree.Hit> nearest = stationStore.index().nearest(USER_LAT, USER_LON, resultCountSpinner.getValue(), maxRadius);
 
-            JSONArray jsonArray = new JSONArray(jsonContent.toString());
-            for (int i = 0; i < jsonArray.length(); i++) {
-                JSONObject stationJson = jsonArray.getJSONObject(i);
-                double latitude = stationJson.getDouble("latitude");
-                double longitude = stationJson.getDouble("longitude");
-                String phoneNumber = stationJson.getString("phoneNumber");
-                String name = stationJson.getString("name");
+        if (nearest.isEmpty()) {
+            resultList.getItems().clear();
+            fireStationLayout.getChildren().setAll(noStationLabel);
+            StartupTrace.mark(StartupTrace.FIRE_STATION_RESULT);
+            return;
+        }
 
-                stations.add(new FireStation(latitude, longitude, phoneNumber, name));
-            }
+        List<StationResult> results = new ArrayList<>(nearest.size());
+        for (int i = 0; i < nearest.size(); i++) {
+            results.add(new StationResult(i, nearest.get(i).id(), nearest.get(i).distanceKm()));
         }
-        return stations;
+        resultList.getItems().setAll(results);
+        resultList.scrollTo(0);
+        fireStationLayout.getChildren().setAll(resultList);
+        StartupTrace.mark(StartupTrace.FIRE_STATION_RESULT);
     }
 
 
-    private VBox createFireStationDisplay() {
-        VBox layout = new VBox(10);
-        layout.setPadding(new Insets(20));
-        layout.setAlignment(Pos.TOP_CENTER);
-
-        if (fireStations.isEmpty()) {
-            Label noStationLabel = new Label("No Fire Station Found");
-            noStationLabel.setFont(Font.font("Arial", 16));
-            noStationLabel.setTextFill(Color.WHITE);
-            layout.getChildren().add(noStationLabel);
-            return layout;
-        }
-
-        for (int i = 0; i < fireStations.size(); i++) {
-            FireStation station = fireStations.get(i);
-            double distance = calculateDistance(USER_LAT, USER_LON, station.latitude, station.longitude);
+    // A station row. The box, labels and transitions are built once per cell and reused for every
+    // station the cell shows, and animations only run for rows that actually come into view.
+    private final class StationCell extends ListCell<StationResult> {
+        private final VBox stationBox = new VBox(5);
+        private final Label nameLabel = createStationLabel();
+        private final Label locationLabel = createStationLabel();
+        private final Label phoneLabel = createStationLabel();
+        private final Label distanceLabel = createStationLabel();
+        private final FadeTransition fadeTransition = new FadeTransition(Duration.millis(1000), stationBox);
+        private final ScaleTransition scaleTransition = new ScaleTransition(Duration.millis(500), stationBox);
 
-            VBox stationBox = new VBox(5);
+        StationCell() {
             stationBox.setPadding(new Insets(10));
-
-
-            Color fillColor = Color.rgb((i * 70) % 255, (i * 100) % 255, (i * 130) % 255, 0.4);
-            stationBox.setBackground(new Background(new BackgroundFill(fillColor, new CornerRadii(5), Insets.EMPTY)));
-
-            Label nameLabel = new Label("Name: " + station.name);
-            nameLabel.setFont(Font.font("Arial", 14));
-            nameLabel.setTextFill(Color.WHITE);  // Light font color
-
-            Label locationLabel = new Label("Location (Lat, Lon): " + station.latitude + ", " + station.longitude);
-            locationLabel.setFont(Font.font("Arial", 14));
-            locationLabel.setTextFill(Color.WHITE);  // Light font color
-
-
-            Label phoneLabel = new Label("Phone Number: " + station.phoneNumber);
-            phoneLabel.setFont(Font.font("Arial", 14));
-            phoneLabel.setTextFill(Color.WHITE);  // Light font color
-
-            Label distanceLabel = new Label("Distance: " + String.format("%.2f", distance) + " km");
-            distanceLabel.setFont(Font.font("Arial", 14));
-            distanceLabel.setTextFill(Color.WHITE);  // Light font color
-
             stationBox.getChildren().addAll(nameLabel, locationLabel, phoneLabel, distanceLabel);
 
             //Add fade in animation
-            FadeTransition fadeTransition = new FadeTransition(Duration.millis(1000), stationBox);
             fadeTransition.setFromValue(0.0);
             fadeTransition.setToValue(1.0);
-            fadeTransition.play();
 
             //Add scale in animation
-            ScaleTransition scaleTransition = new ScaleTransition(Duration.millis(500), stationBox);
             scaleTransition.setFromX(0.95);
             scaleTransition.setFromY(0.95);
             scaleTransition.setToX(1);
             scaleTransition.setToY(1);
-            scaleTransition.play();
-
 
-            layout.getChildren().add(stationBox);
+            setStyle("-fx-background-color: transparent; -fx-padding: 5 0 5 0;");
         }
 
-        return layout;
-    }
+        @Override
+        protected void updateItem(StationResult result, boolean empty) {
+            StationResult previous = getItem();
+            super.updateItem(result, empty);
+            if (empty || result == null) {
+                fadeTransition.stop();
+                scaleTransition.stop();
+                setGraphic(null);
+                return;
+            }
 
+            int i = result.rank();
+            FireStation station = stationStore.station(result.stationId());
+            Color fillColor = Color.rgb((i * 70) % 255, (i * 100) % 255, (i * 130) % 255, 0.4);
+            stationBox.setBackground(new Background(new BackgroundFill(fillColor, new CornerRadii(5), Insets.EMPTY)));
+            nameLabel.setText("Name: " + station.name);
+            String area = gazetteer.describe(station.latitude, station.longitude);
+            locationLabel.setText("Location (Lat, Lon): " + station.latitude + ", " + station.longitude
+                    + (area != null ? " (" + area + ")" : ""));
+            phoneLabel.setText("Phone Number: " + station.phoneNumber);
+            distanceLabel.setText("Distance: " + String.format("%.2f", result.distanceKm()) + " km");
+            setGraphic(stationBox);
+
+            if (result != previous) {
+                fadeTransition.playFromStart();
+                scaleTransition.playFromStart();
+            }
+        }
+    }
 
+    private static Label createStationLabel() {
+        Label label = new Label();
+        label.setFont(Font.font("Arial", 14));
+        label.setTextFill(Color.WHITE);  // Light font color
+        return label;
+    }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int EARTH_RADIUS = 6371;
 
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        lat1 = Math.toRadians(lat1);
-        lat2 = Math.toRadians(lat2);
 
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.sin(dLon / 2) * Math.sin(dLon / 2) * Math.cos(lat1) * Math.cos(lat2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return EARTH_RADIUS * c;
+    // Blank means no cutoff; NaN if the text is not a positive number of km
+    private double readMaxRadius() {
+        String text = maxRadiusField.getText().trim();
+        if (text.isEmpty()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        try {
+            double radius = Double.parseDouble(text);
+            return radius > 0 ? radius : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
     }
 
+
     private Button createStyledButton(String text, Color startColor, Color endColor) {
         Button button = new Button(text);
         button.setPrefWidth(450);
@@ -226,17 +306,3 @@ public class FireStationApp extends Application {
         launch(args);
     }
 }
-
-class FireStation {
-    double latitude;
-    double longitude;
-    String phoneNumber;
-    String name;
-
-    public FireStation(double latitude, double longitude, String phoneNumber, String name) {
-        this.latitude = latitude;
-        this.longitude = longitude;
-        this.phoneNumber = phoneNumber;
-        this.name = name;
-    }
-}
\ No newline at end of file
@@ -0,0 +1,418 @@
+package com.example.smartcity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Offline place names for Bangladesh (division and district seats, notable towns), so the common
+// lookups never touch Nominatim. Built from bd_places.tsv into a compact binary file whose name
+// index is a sorted array of normalized keys (names and aliases). Exact and prefix lookups are binary
+// searches over the raw UTF-8 bytes, with no per-key objects. The reverse direction ("which town is
+// this point in") is a k-d tree over the place centres.
+//
+// Coverage is deliberately narrower than every upazila: the 8 division seats, the 56 other district
+// seats and about 50 larger upazila towns (114 places). Any other upazila name still goes to
+// Nominatim once and is then answered by the GeocodeCache. Covering more upazilas means adding rows
+// with checked coordinates to the TSV and rebuilding.
+//
+// Layout (big-endian):
+//   header    magic, version, place count, key count, string table size, key table size (ints)
+//   double    lat[count], lon[count]
+//   int       population[count]
+//   byte      kind[count]
+//   int       stringOffsets[2 * count + 1]   (name of i at 2i, district of i at 2i + 1)
+//   int       keyOffsets[keys + 1], keyPlace[keys]   (keys sorted bytewise)
+//   byte      strings[string table size], keys[key table size]
+//
+// Rebuild with:
+//   java -p target/classes -m com.example.smartcity/com.example.smartcity.Gazetteer \
+//        src/main/resources/bd_places.tsv src/main/resources/bd_places.gazetteer
+final class Gazetteer {
+
+    private static final int MAGIC = 0x47415A54; // "GAZT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final String RESOURCE = "/bd_places.gazetteer";
+
+    // A point this close to a town centre counts as being in that town
+    static final double SETTLEMENT_RADIUS_KM = 8;
+    // No district seat is further than this from any point of its district
+    static final double DISTRICT_RADIUS_KM = 75;
+
+    private final int count;
+    private final int keyCount;
+    private final ByteBuffer data;
+    private final int latOffset;
+    private final int lonOffset;
+    private final int populationOffset;
+    private final int kindOffset;
+    private final int stringOffsetsOffset;
+    private final int keyOffsetsOffset;
+    private final int keyPlaceOffset;
+    private final int stringsOffset;
+    private final int keysOffset;
+    // Built on first reverse lookup: all places, and district/division seats only (seatIds maps back)
+    private GeoKdTree placeIndex;
+    private GeoKdTree seatIndex;
+    private int[] seatIds;
+
+    enum Kind {
+        DIVISION,
+        DISTRICT,
+        TOWN
+    }
+
+    record Place(int id, String name, String district, Kind kind, double lat, double lon, int population) {
+
+        // "Saidpur, Nilphamari"; seats are just their name
+        String label() {
+            return name.equals(district) ? name : name + ", " + district;
+        }
+    }
+
+    private Gazetteer(ByteBuffer data) throws IOException {
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not a gazetteer (or an unsupported version)");
+        }
+        this.data = data;
+        count = data.getInt(8);
+        keyCount = data.getInt(12);
+        int stringBytes = data.getInt(16);
+        latOffset = HEADER_BYTES;
+        lonOffset = latOffset + count * Double.BYTES;
+        populationOffset = lonOffset + count * Double.BYTES;
+        kindOffset = populationOffset + count * Integer.BYTES;
+        stringOffsetsOffset = kindOffset + count;
+        keyOffsetsOffset = stringOffsetsOffset + (2 * count + 1) * Integer.BYTES;
+        keyPlaceOffset = keyOffsetsOffset + (keyCount + 1) * Integer.BYTES;
+        stringsOffset = keyPlaceOffset + keyCount * Integer.BYTES;
+        keysOffset = stringsOffset + stringBytes;
+    }
+
+    static Gazetteer read(InputStream in) throws IOException {
+        return new Gazetteer(ByteBuffer.wrap(in.readAllBytes()));
+    }
+
+    // The bundled gazetteer; empty (every lookup misses) if it can't be loaded
+    static Gazetteer loadBundled() {
+        try (InputStream in = Gazetteer.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new NoSuchFileException(RESOURCE);
+            }
+            return read(in);
+        } catch (IOException e) {
+            System.err.println("Could not load gazetteer " + RESOURCE + ": " + e.getMessage());
+            try {
+                return new Gazetteer(ByteBuffer.wrap(toBytes(List.of())));
+            } catch (IOException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    Place place(int id) {
+        return new Place(id, string(2 * id), string(2 * id + 1), Kind.values()[data.get(kindOffset + id)],
+                data.getDouble(latOffset + id * Double.BYTES), data.getDouble(lonOffset + id * Double.BYTES),
+                data.getInt(populationOffset + id * Integer.BYTES));
+    }
+
+    // Exact name or alias, case- and spacing-insensitive. Accepts "Rangpur, Bangladesh" and
+    // "Saidpur, Nilphamari" (name, district); null if the query isn't a known place.
+    Place lookup(String query) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Place place = best(key, null);
+        int comma = key.indexOf(", ");
+        if (place == null && comma > 0) {
+            place = best(key.substring(0, comma), key.substring(comma + 2));
+        }
+        return place;
+    }
+
+    // Places with a name or alias starting with prefix, most populous first
+    List<Place> prefix(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        byte[] wanted = key.getBytes(StandardCharsets.UTF_8);
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (int k = lowerBound(wanted); k < keyCount && startsWith(k, wanted); k++) {
+            ids.add(keyPlace(k));
+        }
+        List<Place> places = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            places.add(place(id));
+        }
+        places.sort(Comparator.comparingInt(Place::population).reversed());
+        return places.size() > limit ? List.copyOf(places.subList(0, limit)) : places;
+    }
+
+    // Reverse geocoding: the town whose centre is nearest to the point and within radiusKm, or null
+    Place settlementAt(double lat, double lon, double radiusKm) {
+        List<GeoKdTree.Hit> hits = placeIndex().nearest(lat, lon, 1, radiusKm);
+        return hits.isEmpty() ? null : place(hits.get(0).id());
+    }
+
+    // Without boundary data the nearest district (or division) seat stands in for "the district the
+    // point is in"; right for most of the country, approximate near district borders. null outside the country.
+    Place districtSeatNear(double lat, double lon) {
+        placeIndex();
+        List<GeoKdTree.Hit> hits = seatIndex.nearest(lat, lon, 1, DISTRICT_RADIUS_KM);
+        return hits.isEmpty() ? null : place(seatIds[hits.get(0).id()]);
+    }
+
+    // "Saidpur, Nilphamari" inside a town, else "near Rangpur"; null if nothing is close
+    String describe(double lat, double lon) {
+        Place settlement = settlementAt(lat, lon, SETTLEMENT_RADIUS_KM);
+        if (settlement != null) {
+            return settlement.label();
+        }
+        Place seat = districtSeatNear(lat, lon);
+        return seat != null ? "near " + seat.name() : null;
+    }
+
+    private synchronized GeoKdTree placeIndex() {
+        if (placeIndex == null) {
+            double[] lat = new double[count];
+            double[] lon = new double[count];
+            int seats = 0;
+            for (int i = 0; i < count; i++) {
+                lat[i] = data.getDouble(latOffset + i * Double.BYTES);
+                lon[i] = data.getDouble(lonOffset + i * Double.BYTES);
+                if (data.get(kindOffset + i) != Kind.TOWN.ordinal()) {
+                    seats++;
+                }
+            }
+            double[] seatLat = new double[seats];
+            double[] seatLon = new double[seats];
+            seatIds = new int[seats];
+            for (int i = 0, s = 0; i < count; i++) {
+                if (data.get(kindOffset + i) != Kind.TOWN.ordinal()) {
+                    seatLat[s] = lat[i];
+                    seatLon[s] = lon[i];
+                    seatIds[s++] = i;
+                }
+            }
+            seatIndex = GeoKdTree.build(seatLat, seatLon);
+            placeIndex = GeoKdTree.build(lat, lon);
+        }
+        return placeIndex;
+    }
+
+    // Most populous place whose key is exactly key (and whose district matches, if given)
+    private Place best(String key, String district) {
+        byte[] wanted = key.getBytes(StandardCharsets.UTF_8);
+        Place best = null;
+        for (int k = lowerBound(wanted); k < keyCount && compare(k, wanted) == 0; k++) {
+            Place candidate = place(keyPlace(k));
+            if (district != null && !normalize(candidate.district()).equals(district)) {
+                continue;
+            }
+            if (best == null || candidate.population() > best.population()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    // Same normalization as geocoding queries, minus a trailing country
+    static String normalize(String query) {
+        String key = GeocodeCache.normalize(query);
+        for (String country : new String[]{", bangladesh", " bangladesh", ", bd"}) {
+            if (key.endsWith(country)) {
+                key = key.substring(0, key.length() - country.length());
+                break;
+            }
+        }
+        return key;
+    }
+
+    private int keyPlace(int k) {
+        return data.getInt(keyPlaceOffset + k * Integer.BYTES);
+    }
+
+    private int keyStart(int k) {
+        return keysOffset + data.getInt(keyOffsetsOffset + k * Integer.BYTES);
+    }
+
+    private int keyEnd(int k) {
+        return keysOffset + data.getInt(keyOffsetsOffset + (k + 1) * Integer.BYTES);
+    }
+
+    // First key >= wanted
+    private int lowerBound(byte[] wanted) {
+        int low = 0;
+        int high = keyCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, wanted) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int k, byte[] wanted) {
+        int start = keyStart(k);
+        int length = keyEnd(k) - start;
+        int n = Math.min(length, wanted.length);
+        for (int i = 0; i < n; i++) {
+            int c = Integer.compare(data.get(start + i) & 0xFF, wanted[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(length, wanted.length);
+    }
+
+    private boolean startsWith(int k, byte[] prefix) {
+        int start = keyStart(k);
+        if (keyEnd(k) - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String string(int n) {
+        int start = data.getInt(stringOffsetsOffset + n * Integer.BYTES);
+        int end = data.getInt(stringOffsetsOffset + (n + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        data.get(stringsOffset + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // One line of bd_places.tsv
+    record Entry(String name, List<String> aliases, Kind kind, String district, double lat, double lon, int population) {
+    }
+
+    static List<Entry> readTsv(List<String> lines) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : lines) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 7) {
+                throw new IOException("Expected 7 tab-separated fields: " + line);
+            }
+            List<String> aliases = fields[1].isBlank() ? List.of() : Arrays.asList(fields[1].split("\\|"));
+            entries.add(new Entry(fields[0], aliases, Kind.valueOf(fields[2].toUpperCase(Locale.ROOT)), fields[3],
+                    Double.parseDouble(fields[4]), Double.parseDouble(fields[5]), Integer.parseInt(fields[6])));
+        }
+        return entries;
+    }
+
+    static byte[] toBytes(List<Entry> entries) throws IOException {
+        int n = entries.size();
+        int[] stringOffsets = new int[2 * n + 1];
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        List<byte[]> keyBytes = new ArrayList<>();
+        List<Integer> keyPlaces = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Entry entry = entries.get(i);
+            stringOffsets[2 * i] = strings.size();
+            strings.writeBytes(entry.name().getBytes(StandardCharsets.UTF_8));
+            stringOffsets[2 * i + 1] = strings.size();
+            strings.writeBytes(entry.district().getBytes(StandardCharsets.UTF_8));
+            Set<String> keys = new LinkedHashSet<>();
+            keys.add(normalize(entry.name()));
+            for (String alias : entry.aliases()) {
+                keys.add(normalize(alias));
+            }
+            for (String key : keys) {
+                keyBytes.add(key.getBytes(StandardCharsets.UTF_8));
+                keyPlaces.add(i);
+            }
+        }
+        stringOffsets[2 * n] = strings.size();
+
+        Integer[] order = new Integer[keyBytes.size()];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keyBytes.get(a), keyBytes.get(b)));
+        int[] keyOffsets = new int[order.length + 1];
+        ByteArrayOutputStream keys = new ByteArrayOutputStream();
+        for (int k = 0; k < order.length; k++) {
+            keyOffsets[k] = keys.size();
+            keys.writeBytes(keyBytes.get(order[k]));
+        }
+        keyOffsets[order.length] = keys.size();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(order.length);
+            out.writeInt(strings.size());
+            out.writeInt(keys.size());
+            for (Entry entry : entries) {
+                out.writeDouble(entry.lat());
+            }
+            for (Entry entry : entries) {
+                out.writeDouble(entry.lon());
+            }
+            for (Entry entry : entries) {
+                out.writeInt(entry.population());
+            }
+            for (Entry entry : entries) {
+                out.writeByte(entry.kind().ordinal());
+            }
+            for (int offset : stringOffsets) {
+                out.writeInt(offset);
+            }
+            for (int offset : keyOffsets) {
+                out.writeInt(offset);
+            }
+            for (int k : order) {
+                out.writeInt(keyPlaces.get(k));
+            }
+            strings.writeTo(out);
+            keys.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    // TSV -> binary converter: Gazetteer <places.tsv> <out.gazetteer>
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: Gazetteer <places.tsv> <out.gazetteer>");
+            System.exit(2);
+        }
+        List<Entry> entries = readTsv(Files.readAllLines(Path.of(args[0]), StandardCharsets.UTF_8));
+        Path out = Path.of(args[1]);
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        Files.write(tmp, toBytes(entries));
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Wrote " + entries.size() + " places to " + args[1]);
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.smartcity;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Static k-d tree over points on the earth's surface, built once and then queried for the k
+// nearest points or all points within a radius.
+//
+// Points are stored as 3-D unit vectors rather than lat/lon: straight-line (chord) distance
+// between unit vectors grows monotonically with great-circle distance, so plain Euclidean
+// pruning is exact and there are no wrap-around or pole special cases. The tree is implicit
+// (balanced, median of every range sits at its middle slot), so it needs no node objects, and
+// because of that a tree can also be laid out ahead of time and used straight from a mapped file.
+final class GeoKdTree {
+
+    // A query result: id is the index of the point in the arrays the tree was built from
+    record Hit(int id, double distanceKm) {
+    }
+
+    private final DoubleBuffer x;
+    private final DoubleBuffer y;
+    private final DoubleBuffer z;
+    private final ByteBuffer axis;
+    // ids[slot] is the original index of the point stored in slot; null when slot == id
+    private final int[] ids;
+    private final int size;
+
+    private GeoKdTree(DoubleBuffer x, DoubleBuffer y, DoubleBuffer z, ByteBuffer axis, int[] ids) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.axis = axis;
+        this.ids = ids;
+        this.size = x.limit();
+    }
+
+    // lat/lon in degrees; point i gets id i
+    static GeoKdTree build(double[] lat, double[] lon) {
+        if (lat.length != lon.length) {
+            throw new IllegalArgumentException("lat and lon must have the same length");
+        }
+        int n = lat.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        int[] ids = new int[n];
+        double[] unit = new double[3];
+        for (int i = 0; i < n; i++) {
+            GeoMath.unitVector(lat[i], lon[i], unit, 0);
+            x[i] = unit[0];
+            y[i] = unit[1];
+            z[i] = unit[2];
+            ids[i] = i;
+        }
+        GeoKdTree tree = new GeoKdTree(DoubleBuffer.wrap(x), DoubleBuffer.wrap(y), DoubleBuffer.wrap(z),
+                ByteBuffer.allocate(n), ids);
+        tree.build(0, n);
+        return tree;
+    }
+
+    // A tree whose points are already stored in tree order (see idAt/axisAt), e.g. in a mapped file
+    static GeoKdTree prebuilt(DoubleBuffer x, DoubleBuffer y, DoubleBuffer z, ByteBuffer axis) {
+        return new GeoKdTree(x, y, z, axis, null);
+    }
+
+    // The original id stored in a slot; writing points out in slot order (along with unit vectors and
+    // axisAt) is what makes prebuilt() work
+    int idAt(int slot) {
+        return ids == null ? slot : ids[slot];
+    }
+
+    byte axisAt(int slot) {
+        return axis.get(slot);
+    }
+
+    double unitX(int slot) {
+        return x.get(slot);
+    }
+
+    double unitY(int slot) {
+        return y.get(slot);
+    }
+
+    double unitZ(int slot) {
+        return z.get(slot);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Up to k points closest to (lat, lon), nearest first; maxDistanceKm may be infinite
+    List<Hit> nearest(double lat, double lon, int k, double maxDistanceKm) {
+        if (k <= 0 || size == 0) {
+            return List.of();
+        }
+        Search search = new Search(lat, lon, Math.min(k, size), GeoMath.kmToChordSquared(maxDistanceKm));
+        search.nearest(0, size);
+        return search.sortedHits();
+    }
+
+    // Every point within radiusKm of (lat, lon), nearest first
+    List<Hit> withinRadius(double lat, double lon, double radiusKm) {
+        Search search = new Search(lat, lon, 0, GeoMath.kmToChordSquared(radiusKm));
+        search.within(0, size);
+        return search.sortedHits();
+    }
+
+    private double coordinate(int slot, int dim) {
+        return dim == 0 ? x.get(slot) : dim == 1 ? y.get(slot) : z.get(slot);
+    }
+
+    // Splits every range on its widest dimension at the median, recursively
+    private void build(int lo, int hi) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int dim = widestDimension(lo, hi);
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, dim);
+        axis.put(mid, (byte) dim);
+        build(lo, mid);
+        build(mid + 1, hi);
+    }
+
+    private int widestDimension(int lo, int hi) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        for (int i = lo; i < hi; i++) {
+            double xi = x.get(i);
+            double yi = y.get(i);
+            double zi = z.get(i);
+            minX = Math.min(minX, xi);
+            maxX = Math.max(maxX, xi);
+            minY = Math.min(minY, yi);
+            maxY = Math.max(maxY, yi);
+            minZ = Math.min(minZ, zi);
+            maxZ = Math.max(maxZ, zi);
+        }
+        double spreadX = maxX - minX;
+        double spreadY = maxY - minY;
+        double spreadZ = maxZ - minZ;
+        if (spreadX >= spreadY && spreadX >= spreadZ) {
+            return 0;
+        }
+        return spreadY >= spreadZ ? 1 : 2;
+    }
+
+    // Quickselect: afterwards slot k holds the median along dim, smaller values to its left
+    private void select(int left, int right, int k, int dim) {
+        while (right > left) {
+            int pivotIndex = (left + right) >>> 1;
+            double pivot = coordinate(pivotIndex, dim);
+            swap(pivotIndex, right);
+            int store = left;
+            for (int i = left; i < right; i++) {
+                if (coordinate(i, dim) < pivot) {
+                    swap(i, store++);
+                }
+            }
+            swap(store, right);
+            if (store == k) {
+                return;
+            } else if (store < k) {
+                left = store + 1;
+            } else {
+                right = store - 1;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        swap(x, i, j);
+        swap(y, i, j);
+        swap(z, i, j);
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    private static void swap(DoubleBuffer column, int i, int j) {
+        double t = column.get(i);
+        column.put(i, column.get(j));
+        column.put(j, t);
+    }
+
+    // State of one query. For k-nearest the hits form a max-heap on distance, bounded at k entries,
+    // so the current k-th best distance is always at the root and doubles as the pruning bound.
+    private final class Search {
+        private final double qx;
+        private final double qy;
+        private final double qz;
+        private final int k;
+        private double bound;
+        private int[] slots;
+        private double[] distances;
+        private int count;
+
+        Search(double lat, double lon, int k, double boundSquared) {
+            double[] unit = new double[3];
+            GeoMath.unitVector(lat, lon, unit, 0);
+            this.qx = unit[0];
+            this.qy = unit[1];
+            this.qz = unit[2];
+            this.k = k;
+            this.bound = boundSquared;
+            int capacity = k > 0 ? k : 16;
+            this.slots = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        void nearest(int lo, int hi) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            double d = distanceSquared(mid);
+            if (d <= bound) {
+                offer(mid, d);
+            }
+            if (hi - lo == 1) {
+                return;
+            }
+            int dim = axis.get(mid);
+            double diff = (dim == 0 ? qx : dim == 1 ? qy : qz) - coordinate(mid, dim);
+            if (diff < 0) {
+                nearest(lo, mid);
+                if (diff * diff <= bound) {
+                    nearest(mid + 1, hi);
+                }
+            } else {
+                nearest(mid + 1, hi);
+                if (diff * diff <= bound) {
+                    nearest(lo, mid);
+                }
+            }
+        }
+
+        void within(int lo, int hi) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            double d = distanceSquared(mid);
+            if (d <= bound) {
+                append(mid, d);
+            }
+            if (hi - lo == 1) {
+                return;
+            }
+            int dim = axis.get(mid);
+            double diff = (dim == 0 ? qx : dim == 1 ? qy : qz) - coordinate(mid, dim);
+            if (diff < 0 || diff * diff <= bound) {
+                within(lo, mid);
+            }
+            if (diff >= 0 || diff * diff <= bound) {
+                within(mid + 1, hi);
+            }
+        }
+
+        private double distanceSquared(int slot) {
+            double dx = x.get(slot) - qx;
+            double dy = y.get(slot) - qy;
+            double dz = z.get(slot) - qz;
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        private void offer(int slot, double d) {
+            if (count < k) {
+                slots[count] = slot;
+                distances[count] = d;
+                siftUp(count++);
+                if (count == k) {
+                    bound = distances[0];
+                }
+            } else if (d < distances[0]) {
+                slots[0] = slot;
+                distances[0] = d;
+                siftDown(0);
+                bound = distances[0];
+            }
+        }
+
+        private void append(int slot, double d) {
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, count * 2);
+                distances = Arrays.copyOf(distances, count * 2);
+            }
+            slots[count] = slot;
+            distances[count++] = d;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (distances[parent] >= distances[i]) {
+                    return;
+                }
+                swapHeap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < count && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < count && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swapHeap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swapHeap(int i, int j) {
+            int s = slots[i];
+            slots[i] = slots[j];
+            slots[j] = s;
+            double d = distances[i];
+            distances[i] = distances[j];
+            distances[j] = d;
+        }
+
+        List<Hit> sortedHits() {
+            List<Hit> hits = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                hits.add(new Hit(idAt(slots[i]), GeoMath.chordToKm(Math.sqrt(distances[i]))));
+            }
+            hits.sort((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.smartcity;
+
+// The one place distance math lives. All distances are on a sphere of radius 6371 km.
+//
+//  - haversineKm: exact great-circle distance; use it for final answers and ranking.
+//  - equirectangularKm: flat-earth approximation on Points with precomputed radians and cos(lat), no
+//    trig at all. Worst relative error measured against haversine for points within 60 degrees of
+//    latitude: < 0.005% up to 100 km, < 0.1% up to 500 km (below 0.03% at Bangladesh's latitudes).
+//    Good for cheap pre-filtering; rank the survivors with haversine.
+//  - unit vectors + chordKm: what the spatial index and the distance matrix use. Chord length between
+//    unit vectors is monotonic in great-circle distance, so comparisons need no trig either, and
+//    chordKm converts back exactly.
+final class GeoMath {
+
+    static final double EARTH_RADIUS_KM = 6371;
+
+    private GeoMath() {
+    }
+
+    // A coordinate with its trig precomputed, so repeated distance calls on it cost no sin/cos
+    static final class Point {
+        final double lat;
+        final double lon;
+        final double latRad;
+        final double lonRad;
+        final double cosLat;
+
+        Point(double lat, double lon) {
+            this.lat = lat;
+            this.lon = lon;
+            this.latRad = Math.toRadians(lat);
+            this.lonRad = Math.toRadians(lon);
+            this.cosLat = Math.cos(latRad);
+        }
+    }
+
+    // lat/lon in degrees
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinHalfDLat = Math.sin((phi2 - phi1) / 2);
+        double sinHalfDLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinHalfDLat * sinHalfDLat + Math.cos(phi1) * Math.cos(phi2) * sinHalfDLon * sinHalfDLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Same result as above, reusing the precomputed radians and cosines
+    static double haversineKm(Point a, Point b) {
+        double sinHalfDLat = Math.sin((b.latRad - a.latRad) / 2);
+        double sinHalfDLon = Math.sin((b.lonRad - a.lonRad) / 2);
+        double h = sinHalfDLat * sinHalfDLat + a.cosLat * b.cosLat * sinHalfDLon * sinHalfDLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    // Approximate distance without trig; see the error bounds above
+    static double equirectangularKm(Point a, Point b) {
+        double dLon = b.lonRad - a.lonRad;
+        if (dLon > Math.PI) {
+            dLon -= 2 * Math.PI;
+        } else if (dLon < -Math.PI) {
+            dLon += 2 * Math.PI;
+        }
+        // mean of the endpoint cosines stands in for cos(mean latitude)
+        double x = dLon * (a.cosLat + b.cosLat) * 0.5;
+        double y = b.latRad - a.latRad;
+        return EARTH_RADIUS_KM * Math.sqrt(x * x + y * y);
+    }
+
+    // Writes the unit vector of (lat, lon) in degrees to out[offset..offset + 2]
+    static void unitVector(double lat, double lon, double[] out, int offset) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        double cosPhi = Math.cos(phi);
+        out[offset] = cosPhi * Math.cos(lambda);
+        out[offset + 1] = cosPhi * Math.sin(lambda);
+        out[offset + 2] = Math.sin(phi);
+    }
+
+    // Great-circle distance from the difference of two unit vectors. Taking the chord from the
+    // coordinate differences (not from 1 - dot product) keeps full precision for points metres apart.
+    static double chordKm(double dx, double dy, double dz) {
+        return chordToKm(Math.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+
+    static double chordToKm(double chord) {
+        return 2 * EARTH_RADIUS_KM * arcsin(chord * 0.5);
+    }
+
+    // Squared chord length for a great-circle distance; anything >= half the circumference maps to
+    // just over the largest possible value, so "everything" compares as within range
+    static double kmToChordSquared(double distanceKm) {
+        double angle = distanceKm / EARTH_RADIUS_KM;
+        if (!(angle < Math.PI)) {
+            return 4.000001;
+        }
+        double chord = 2 * Math.sin(angle / 2);
+        return chord * chord;
+    }
+
+    // asin is the expensive step of chordToKm. Below h = 0.1 (distances up to ~1275 km) its Taylor
+    // series through h^11 is exact to double precision (relative error ~2e-14) and far cheaper.
+    static double arcsin(double h) {
+        if (h >= 0.1) {
+            return Math.asin(Math.min(1, h));
+        }
+        double h2 = h * h;
+        return h * (1 + h2 * (1.0 / 6 + h2 * (3.0 / 40 + h2 * (5.0 / 112 + h2 * (35.0 / 1152 + h2 * (63.0 / 2816))))));
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.smartcity;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Query -> coordinates cache in front of the Nominatim search endpoint.
+// Bounded LRU in memory, entries expire after a TTL, and the whole map is written to a
+// small binary file so the next launch starts warm.
+final class GeocodeCache {
+
+    private static final int MAGIC = 0x47454F43; // "GEOC"
+    private static final int VERSION = 1;
+
+    static final int DEFAULT_MAX_ENTRIES = 4096;
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.DAYS.toMillis(30);
+    // "not found" answers are cached too, but only briefly so a typo fixed upstream shows up
+    static final long DEFAULT_NEGATIVE_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Path file;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LinkedHashMap<String, Entry> entries;
+    private long hits;
+    private long misses;
+    private boolean dirty;
+
+    record Entry(double lat, double lon, boolean found, long expiresAt) {
+
+        double[] coordinates() {
+            return found ? new double[]{lat, lon} : null;
+        }
+    }
+
+    GeocodeCache(Path file, int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > GeocodeCache.this.maxEntries;
+            }
+        };
+    }
+
+    // The per-user cache file, loaded, and flushed again when the JVM exits
+    static GeocodeCache create() {
+        GeocodeCache cache = new GeocodeCache(AppPaths.cacheFile("geocode.cache"),
+                DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS);
+        cache.load();
+        Runtime.getRuntime().addShutdownHook(new Thread(cache::flush, "geocode-cache-flush"));
+        return cache;
+    }
+
+    // "  Rangpur ,Bangladesh " and "rangpur, bangladesh" are the same query to Nominatim
+    static String normalize(String query) {
+        String s = Normalizer.normalize(query, Normalizer.Form.NFKC).trim().toLowerCase(Locale.ROOT);
+        s = s.replaceAll("\\s+", " ");
+        s = s.replaceAll("\\s*,\\s*", ", ");
+        s = s.replaceAll("[\\s,.;]+$", "");
+        return s;
+    }
+
+    // Returns null on a miss; a non-null entry with found() == false is a cached "no such place"
+    synchronized Entry get(String query) {
+        String key = normalize(query);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key);
+            dirty = true;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+
+    // coords == null records that the geocoder had no result for this query
+    synchronized void put(String query, double[] coords) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = coords != null
+                ? new Entry(coords[0], coords[1], true, now + ttlMillis)
+                : new Entry(0, 0, false, now + negativeTtlMillis);
+        entries.put(key, entry);
+        dirty = true;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    synchronized String stats() {
+        long total = hits + misses;
+        return String.format(Locale.ROOT, "geocode cache: %d entries, %d hits / %d misses (%.1f%% hit rate)",
+                entries.size(), hits, misses, total == 0 ? 0.0 : 100.0 * hits / total);
+    }
+
+    synchronized void load() {
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.err.println("Ignoring geocode cache with unknown format: " + file);
+                return;
+            }
+            int count = in.readInt();
+            // written eldest first, so re-inserting in file order restores the LRU order
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                boolean found = in.readBoolean();
+                double lat = found ? in.readDouble() : 0;
+                double lon = found ? in.readDouble() : 0;
+                long expiresAt = in.readLong();
+                if (expiresAt >= now) {
+                    entries.put(key, new Entry(lat, lon, found, expiresAt));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // first launch
+        } catch (IOException e) {
+            System.err.println("Could not read geocode cache " + file + ": " + e.getMessage());
+        }
+        dirty = false;
+    }
+
+    void flush() {
+        List<Map.Entry<String, Entry>> snapshot;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().expiresAt() < now) {
+                    it.remove();
+                }
+            }
+            snapshot = new ArrayList<>(entries.entrySet());
+            dirty = false;
+        }
+
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Entry> e : snapshot) {
+                    Entry entry = e.getValue();
+                    out.writeUTF(e.getKey());
+                    out.writeBoolean(entry.found());
+                    if (entry.found()) {
+                        out.writeDouble(entry.lat());
+                        out.writeDouble(entry.lon());
+                    }
+                    out.writeLong(entry.expiresAt());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write geocode cache " + file + ": " + e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.smartcity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Place name <-> coordinates, cheapest source first: the bundled gazetteer, then the geocode cache,
+// then Nominatim through the rate-limited scheduler. Blocking; call from a background thread.
+final class Geocoder {
+
+    private static final String NOMINATIM_URL = "https://nominatim.openstreetmap.org/";
+    // Longest wait for a Nominatim answer, queueing and throttling included
+    static final long LOOKUP_TIMEOUT_SECONDS = 60;
+
+    private final Gazetteer gazetteer;
+    private final GeocodeCache geocodeCache;
+    private final NominatimScheduler nominatim;
+
+    Geocoder(Gazetteer gazetteer, GeocodeCache geocodeCache, NominatimScheduler nominatim) {
+        this.gazetteer = gazetteer;
+        this.geocodeCache = geocodeCache;
+        this.nominatim = nominatim;
+    }
+
+    // {lat, lon}, or null if nothing matches. An IOException means the lookup itself failed (Nominatim
+    // unreachable, throttling us, too slow or answering garbage), which is not the same as "no such place".
+    double[] coordinates(String location, NominatimScheduler.Priority priority) throws IOException, InterruptedException {
+        // Bundled Bangladeshi places answer offline in microseconds
+        Gazetteer.Place place = gazetteer.lookup(location);
+        if (place != null) {
+            return new double[]{place.lat(), place.lon()};
+        }
+
+        GeocodeCache.Entry cached = geocodeCache.get(location);
+        if (cached != null) {
+            return cached.coordinates();
+        }
+
+        String urlString = NOMINATIM_URL + "search?q=" +
+                URLEncoder.encode(location, StandardCharsets.UTF_8) + "&format=json&limit=1";
+        byte[] body = await(nominatim.fetch(URI.create(urlString), priority));
+        double[] coords = NominatimResponses.parseSearch(new ByteArrayInputStream(body));
+        geocodeCache.put(location, coords); // null (no hits) is cached as a negative entry
+        return coords;
+    }
+
+    // Local first; Nominatim only for points outside every known town. Null if unknown or the lookup fails.
+    String placeName(double latitude, double longitude, NominatimScheduler.Priority priority) {
+        Gazetteer.Place place = gazetteer.settlementAt(latitude, longitude, Gazetteer.SETTLEMENT_RADIUS_KM);
+        if (place != null) {
+            return place.name();
+        }
+        try {
+            String urlString = NOMINATIM_URL + "reverse?format=jsonv2&lat=" +
+                    latitude + "&lon=" + longitude + "&accept-language=en";
+            byte[] body = await(nominatim.fetch(URI.create(urlString), priority));
+            NominatimResponses.Address address = NominatimResponses.parseReverse(new ByteArrayInputStream(body));
+            return address != null ? address.settlementName() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Gives up on timeout or interrupt (a superseded lookup); cancelling lets the scheduler drop the
+    // request if it is still queued
+    private static byte[] await(CompletableFuture<byte[]> request) throws IOException, InterruptedException {
+        try {
+            return request.get(LOOKUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            request.cancel(false);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (TimeoutException e) {
+            request.cancel(false);
+            throw new IOException("no answer from Nominatim within " + LOOKUP_TIMEOUT_SECONDS + " s");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new IOException("Nominatim lookup failed: "
+                    + (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()), cause);
+        }
+    }
+
+    String stats() {
+        return geocodeCache.stats() + System.lineSeparator() + nominatim.stats();
+    }
+
+    void flush() {
+        geocodeCache.flush();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.smartcity;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+// The one HTTP client every outbound call in the app goes through (geocoding, weather, icons, maps).
+// A single java.net.http.HttpClient keeps connections alive between calls, so back-to-back requests
+// to the same host skip TCP/TLS setup, and negotiates HTTP/2 where the server offers it.
+final class HttpTransport {
+
+    static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(15);
+    static final int MAX_CONCURRENT_PER_HOST = 4;
+    private static final String USER_AGENT = "SmartCity/1.0";
+
+    private final HttpClient client;
+    private final int maxConcurrentPerHost;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    // The body has been received in full and is already un-gzipped
+    static final class Response implements Closeable {
+        private final int statusCode;
+        private final HttpHeaders headers;
+        private final InputStream body;
+
+        private Response(int statusCode, HttpHeaders headers, InputStream body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        int statusCode() {
+            return statusCode;
+        }
+
+        HttpHeaders headers() {
+            return headers;
+        }
+
+        InputStream body() {
+            return body;
+        }
+
+        byte[] bytes() throws IOException {
+            try (this) {
+                return body.readAllBytes();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    HttpTransport(Duration connectTimeout, int maxConcurrentPerHost) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+    }
+
+    static HttpTransport create() {
+        return new HttpTransport(CONNECT_TIMEOUT, MAX_CONCURRENT_PER_HOST);
+    }
+
+    // headers are name/value pairs, e.g. get(uri, "User-Agent", "Mozilla/5.0"). REQUEST_TIMEOUT bounds
+    // the whole exchange, body included: HttpRequest.timeout alone stops counting once the headers are
+    // in, so a stalled body would hang the caller and keep the host permit.
+    Response get(URI uri, String... headers) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept-Encoding", "gzip")
+                .header("User-Agent", USER_AGENT)
+                .GET();
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            request.setHeader(headers[i], headers[i + 1]);
+        }
+
+        Semaphore permit = hostPermits.computeIfAbsent(uri.getHost(), host -> new Semaphore(maxConcurrentPerHost, true));
+        permit.acquire();
+        CompletableFuture<HttpResponse<byte[]>> exchange = client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        try {
+            HttpResponse<byte[]> response = exchange.get(REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            InputStream body = new ByteArrayInputStream(response.body());
+            if (response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent()) {
+                body = new GZIPInputStream(body);
+            }
+            return new Response(response.statusCode(), response.headers(), body);
+        } catch (TimeoutException e) {
+            throw new HttpTimeoutException("No complete response from " + uri.getHost() + " within " + REQUEST_TIMEOUT.toSeconds() + " s");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            // rethrown from this thread; a ConnectException and the like carry no message, so keep the type
+            throw new IOException(cause.getMessage() != null ? cause.getMessage() : cause.toString(), cause);
+        } finally {
+            // aborts the exchange if it is still running (timeout or interrupt)
+            exchange.cancel(true);
+            permit.release();
+        }
+    }
+
+    // Convenience for small payloads (icons, map images); fails on anything but 200
+    byte[] getBytes(URI uri, String... headers) throws IOException, InterruptedException {
+        try (Response response = get(uri, headers)) {
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " for " + uri);
+            }
+            return response.bytes();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.smartcity;
+
+import javafx.scene.image.Image;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Decoded images for the weather screen. Bundled emoji art is decoded once, straight to the size it
+// is shown at (the source PNGs are several MB at full resolution). OpenWeather icons are downloaded
+// once, kept on disk in a small store trimmed by least-recent use, and decoded once per size.
+// Decoding happens on the calling thread, so call from a background thread.
+final class IconCache {
+
+    static final int MAX_DECODED = 64;
+    static final long DEFAULT_MAX_DISK_BYTES = 2 * 1024 * 1024;
+    private static final String ICON_URL = "https://openweathermap.org/img/wn/";
+    // OpenWeather icon codes look like "10d"; anything else never reaches the file system
+    private static final Pattern ICON_CODE = Pattern.compile("[0-9a-z]{1,8}");
+
+    private final DiskLru disk;
+    private final HttpTransport httpTransport;
+    private final LinkedHashMap<String, Image> decoded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > MAX_DECODED;
+        }
+    };
+
+    IconCache(Path dir, long maxDiskBytes, HttpTransport httpTransport) {
+        this.disk = new DiskLru(dir, maxDiskBytes);
+        this.httpTransport = httpTransport;
+    }
+
+    static IconCache create(HttpTransport httpTransport) {
+        return new IconCache(AppPaths.cacheFile("icons"), DEFAULT_MAX_DISK_BYTES, httpTransport);
+    }
+
+    // A classpath image scaled to size x size (aspect ratio kept); null if it doesn't exist
+    Image bundled(String resourcePath, double size) {
+        String key = resourcePath + "@" + size;
+        Image image = cached(key);
+        if (image != null) {
+            return image;
+        }
+        try (InputStream in = IconCache.class.getResourceAsStream(resourcePath)) {
+            if (in == null) {
+                System.err.println("Error loading image: " + resourcePath);
+                return null;
+            }
+            image = new Image(in, size, size, true, true);
+        } catch (IOException e) {
+            System.err.println("Error loading image " + resourcePath + ": " + e.getMessage());
+            return null;
+        }
+        return remember(key, image);
+    }
+
+    // The OpenWeather icon for iconCode (e.g. "10d") at size x size; null if it can't be had
+    Image weatherIcon(String iconCode, double size) {
+        if (iconCode == null || !ICON_CODE.matcher(iconCode).matches()) {
+            return null;
+        }
+        String key = "owm:" + iconCode + "@" + size;
+        Image image = cached(key);
+        if (image != null) {
+            return image;
+        }
+        try {
+            String file = iconCode + "@2x.png";
+            byte[] png = disk.read(file);
+            if (png == null) {
+                png = httpTransport.getBytes(URI.create(ICON_URL + file));
+                disk.write(file, png);
+            }
+            image = new Image(new ByteArrayInputStream(png), size, size, true, true);
+        } catch (IOException e) {
+            System.err.println("Error loading weather icon " + iconCode + ": " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return image.isError() ? null : remember(key, image);
+    }
+
+    private synchronized Image cached(String key) {
+        return decoded.get(key);
+    }
+
+    private synchronized Image remember(String key, Image image) {
+        decoded.put(key, image);
+        return image;
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.smartcity;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Minimal streaming JSON reader that works straight off a UTF-8 byte stream. Callers walk the
+// document with beginObject/nextName/... and skipValue() everything they don't need, so a
+// response costs one small buffer plus the Strings that are actually kept, instead of a full tree.
+final class JsonPullParser implements Closeable {
+
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // What the parser expects next in each open scope
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private int pos;
+    private int limit;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+
+    private Token peeked;
+    private boolean peekedBoolean;
+    private final StringBuilder text = new StringBuilder(64);
+
+    JsonPullParser(InputStream in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int scope = stack[stackSize - 1];
+        switch (scope) {
+            case EMPTY_ARRAY -> {
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                int c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c == -1) {
+                    throw syntaxError("unexpected end of input");
+                }
+                pos--;
+            }
+            case NONEMPTY_ARRAY -> {
+                int c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("expected ',' or ']'");
+                }
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                stack[stackSize - 1] = DANGLING_NAME;
+                int c = nextNonWhitespace();
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c == '}') {
+                        return peeked = Token.END_OBJECT;
+                    }
+                    if (c != ',') {
+                        throw syntaxError("expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c == '"') {
+                    return peeked = Token.NAME;
+                }
+                if (c == '}' && scope == EMPTY_OBJECT) {
+                    return peeked = Token.END_OBJECT;
+                }
+                throw syntaxError("expected a name");
+            }
+            case DANGLING_NAME -> {
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("expected ':'");
+                }
+            }
+            case EMPTY_DOCUMENT -> stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+            default -> {
+                if (nextNonWhitespace() == -1) {
+                    return peeked = Token.END_DOCUMENT;
+                }
+                throw syntaxError("trailing data after document");
+            }
+        }
+
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{' -> peeked = Token.BEGIN_OBJECT;
+            case '[' -> peeked = Token.BEGIN_ARRAY;
+            case '"' -> peeked = Token.STRING;
+            case 't' -> {
+                expectLiteral("rue");
+                peekedBoolean = true;
+                peeked = Token.BOOLEAN;
+            }
+            case 'f' -> {
+                expectLiteral("alse");
+                peekedBoolean = false;
+                peeked = Token.BOOLEAN;
+            }
+            case 'n' -> {
+                expectLiteral("ull");
+                peeked = Token.NULL;
+            }
+            case -1 -> throw syntaxError("unexpected end of input");
+            default -> {
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw syntaxError("unexpected character '" + (char) c + "'");
+                }
+                pos--;
+                peeked = Token.NUMBER;
+            }
+        }
+        return peeked;
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    // true while the current object or array has more members
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    // Numbers are returned as their literal text
+    String nextString() throws IOException {
+        Token token = peek();
+        peeked = null;
+        if (token == Token.STRING) {
+            return readString();
+        }
+        if (token == Token.NUMBER) {
+            return readNumber();
+        }
+        throw syntaxError("expected a string but was " + token);
+    }
+
+    // Accepts quoted numbers too, which is how Nominatim sends lat/lon
+    double nextDouble() throws IOException {
+        Token token = peek();
+        peeked = null;
+        if (token == Token.NUMBER) {
+            return Double.parseDouble(readNumber());
+        }
+        if (token == Token.STRING) {
+            return Double.parseDouble(readString());
+        }
+        throw syntaxError("expected a number but was " + token);
+    }
+
+    long nextLong() throws IOException {
+        Token token = peek();
+        peeked = null;
+        String value;
+        if (token == Token.NUMBER) {
+            value = readNumber();
+        } else if (token == Token.STRING) {
+            value = readString();
+        } else {
+            throw syntaxError("expected a number but was " + token);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return (long) Double.parseDouble(value);
+        }
+    }
+
+    int nextInt() throws IOException {
+        return (int) nextLong();
+    }
+
+    boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return peekedBoolean;
+    }
+
+    void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    // Skips the next value (or name and value) including everything nested in it, without building Strings
+    void skipValue() throws IOException {
+        if (peek() == Token.NAME) {
+            peeked = null;
+            skipString();
+        }
+        int depth = 0;
+        do {
+            Token token = peek();
+            peeked = null;
+            switch (token) {
+                case BEGIN_OBJECT -> {
+                    push(EMPTY_OBJECT);
+                    depth++;
+                }
+                case BEGIN_ARRAY -> {
+                    push(EMPTY_ARRAY);
+                    depth++;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    stackSize--;
+                    depth--;
+                }
+                case NAME, STRING -> skipString();
+                case NUMBER -> skipNumber();
+                case END_DOCUMENT -> throw syntaxError("unexpected end of document");
+                default -> {
+                    // BOOLEAN and NULL were fully consumed by peek()
+                }
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stackSize * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return -1;
+            }
+            pos = 0;
+            limit = n;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) {
+                throw syntaxError("invalid literal");
+            }
+        }
+    }
+
+    // Called with the opening quote already consumed
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c == -1) {
+                throw syntaxError("unterminated string");
+            }
+            if (c == '\\') {
+                readEscape();
+            } else if (c < 0x80) {
+                text.append((char) c);
+            } else if (c < 0xE0) {
+                text.append((char) (((c & 0x1F) << 6) | continuation()));
+            } else if (c < 0xF0) {
+                text.append((char) (((c & 0x0F) << 12) | (continuation() << 6) | continuation()));
+            } else {
+                int codePoint = ((c & 0x07) << 18) | (continuation() << 12) | (continuation() << 6) | continuation();
+                text.appendCodePoint(codePoint);
+            }
+        }
+    }
+
+    private int continuation() throws IOException {
+        int c = read();
+        if ((c & 0xC0) != 0x80) {
+            throw syntaxError("malformed UTF-8");
+        }
+        return c & 0x3F;
+    }
+
+    private void readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"', '\\', '/' -> text.append((char) c);
+            case 'b' -> text.append('\b');
+            case 'f' -> text.append('\f');
+            case 'n' -> text.append('\n');
+            case 'r' -> text.append('\r');
+            case 't' -> text.append('\t');
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("invalid \\u escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                text.append((char) value);
+            }
+            default -> throw syntaxError("invalid escape");
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                read(); // the escaped character; \\uXXXX digits are plain characters anyway
+            } else if (c == -1) {
+                throw syntaxError("unterminated string");
+            }
+        }
+    }
+
+    private String readNumber() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                text.append((char) c);
+            } else {
+                if (c != -1) {
+                    pos--;
+                }
+                return text.toString();
+            }
+        }
+    }
+
+    private void skipNumber() throws IOException {
+        while (true) {
+            int c = read();
+            if (!((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E')) {
+                if (c != -1) {
+                    pos--;
+                }
+                return;
+            }
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.smartcity;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Keeps only the newest of a series of background requests alive: starting a new one cancels
+// whatever the previous one still has in flight, and results of superseded requests are
+// dropped instead of being posted to the UI. Only touch it from the FX Application Thread.
+//
+// Cancelling a plain supplyAsync future only drops its result; the task keeps running. Blocking
+// work that should stop with it (a Nominatim lookup waiting for its turn) is started with
+// supplyInterruptibly, whose cancel interrupts the task.
+final class LatestRequest {
+
+    private final List<Future<?>> inFlight = new ArrayList<>();
+    private long generation;
+
+    // Like CompletableFuture.supplyAsync, but cancelling the returned future interrupts the task
+    static <T> CompletableFuture<T> supplyInterruptibly(Supplier<T> task, ExecutorService executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // Supersedes the current request, if any
+    void cancel() {
+        generation++;
+        for (Future<?> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+    }
+
+    <T extends Future<?>> T track(T future) {
+        inFlight.add(future);
+        return future;
+    }
+
+    // Posts the outcome back on the FX thread unless a newer request was started in the meantime
+    <T> void whenDone(CompletableFuture<T> future, Consumer<? super T> onResult, Consumer<Throwable> onError) {
+        track(future);
+        long requestGeneration = generation;
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (requestGeneration != generation) {
+                return; // superseded
+            }
+            inFlight.clear();
+            if (error != null) {
+                onError.accept(error);
+            } else {
+                onResult.accept(result);
+            }
+        }));
+    }
+}
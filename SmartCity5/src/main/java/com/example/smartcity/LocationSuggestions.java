@@ -0,0 +1,103 @@
+package com.example.smartcity;
+
+import javafx.animation.PauseTransition;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.CustomMenuItem;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// As-you-type place suggestions for a location field, from the offline gazetteer. Keystrokes are
+// debounced, the lookup runs off the FX thread, and a newer keystroke drops older results, so typing
+// never waits on it. Picking a suggestion fills in a name the gazetteer resolves exactly, which
+// keeps the lookup local; only text with no local match ever goes to the network.
+final class LocationSuggestions {
+
+    static final int MAX_SUGGESTIONS = 8;
+    static final Duration DEBOUNCE = Duration.millis(120);
+    // Shorter prefixes match half the country
+    private static final int MIN_PREFIX = 2;
+
+    private final TextField field;
+    private final Gazetteer gazetteer;
+    private final Executor executor;
+    private final ContextMenu menu = new ContextMenu();
+    private final PauseTransition debounce = new PauseTransition(DEBOUNCE);
+    private final LatestRequest lookup = new LatestRequest();
+    private boolean applying;
+
+    private LocationSuggestions(TextField field, Gazetteer gazetteer, Executor executor) {
+        this.field = field;
+        this.gazetteer = gazetteer;
+        this.executor = executor;
+    }
+
+    static LocationSuggestions attach(TextField field, Gazetteer gazetteer, Executor executor) {
+        LocationSuggestions suggestions = new LocationSuggestions(field, gazetteer, executor);
+        suggestions.debounce.setOnFinished(e -> suggestions.lookUp());
+        field.textProperty().addListener((obs, oldText, newText) -> suggestions.textChanged());
+        field.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (!focused) {
+                suggestions.hide();
+            }
+        });
+        return suggestions;
+    }
+
+    private void textChanged() {
+        // programmatic updates (defaults, a picked suggestion) don't ask for suggestions
+        if (applying || !field.isFocused()) {
+            return;
+        }
+        lookup.cancel();
+        debounce.playFromStart();
+    }
+
+    private void lookUp() {
+        String text = field.getText();
+        if (text == null || text.trim().length() < MIN_PREFIX) {
+            hide();
+            return;
+        }
+        lookup.cancel();
+        lookup.whenDone(CompletableFuture.supplyAsync(() -> gazetteer.prefix(text, MAX_SUGGESTIONS), executor),
+                this::show, error -> hide());
+    }
+
+    private void show(List<Gazetteer.Place> places) {
+        if (places.isEmpty() || !field.isFocused()) {
+            hide();
+            return;
+        }
+        menu.getItems().clear();
+        for (Gazetteer.Place place : places) {
+            CustomMenuItem item = new CustomMenuItem(new Label(place.label()), true);
+            item.setOnAction(e -> apply(place));
+            menu.getItems().add(item);
+        }
+        if (!menu.isShowing()) {
+            menu.show(field, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    private void apply(Gazetteer.Place place) {
+        applying = true;
+        try {
+            field.setText(place.label() + ", Bangladesh");
+            field.positionCaret(field.getText().length());
+        } finally {
+            applying = false;
+        }
+        hide();
+    }
+
+    void hide() {
+        debounce.stop();
+        menu.hide();
+    }
+}
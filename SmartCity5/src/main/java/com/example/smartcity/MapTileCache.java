@@ -0,0 +1,159 @@
+package com.example.smartcity;
+
+import javafx.scene.image.Image;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Yandex static map images for the distance screen. Map centers are snapped to a grid of GRID_PX
+// screen pixels at the requested zoom, so nearby locations (and the same city geocoded twice) share
+// one image. Downloads land in a size-capped LRU directory and the last few decoded images stay in
+// memory, so going back to a recent location is instant, and the default Rangpur map is downloaded
+// once rather than on every launch.
+final class MapTileCache {
+
+    static final int GRID_PX = 50;
+    static final int MAX_DECODED = 16;
+    static final long DEFAULT_MAX_DISK_BYTES = 32L * 1024 * 1024;
+    private static final String MAP_URL = "https://static-maps.yandex.ru/1.x/?lang=en-US";
+
+    private static final ExecutorService MAP_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private final DiskLru disk;
+    private final HttpTransport httpTransport;
+    private final Map<Tile, CompletableFuture<byte[]>> downloads = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Tile, Image> decoded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Tile, Image> eldest) {
+            return size() > MAX_DECODED;
+        }
+    };
+
+    // A map image: grid cell of its center plus zoom and pixel size. Rows are counted in Web Mercator
+    // pixels north of the equator, like the map itself, so neighbouring rows are neighbouring images.
+    record Tile(int zoom, int width, int height, long row, long column) {
+
+        static Tile around(double lat, double lon, int zoom, int width, int height) {
+            return new Tile(zoom, width, height, Math.round(mercatorPixels(lat, zoom) / GRID_PX),
+                    Math.round(lon / gridDegrees(zoom)));
+        }
+
+        // Degrees of longitude per GRID_PX pixels at this zoom (256 px tiles, 360 degrees at zoom 0)
+        static double gridDegrees(int zoom) {
+            return GRID_PX * 360.0 / (256.0 * (1L << zoom));
+        }
+
+        // Pixels from the equator to this latitude on the Web Mercator map at this zoom
+        static double mercatorPixels(double lat, int zoom) {
+            double phi = Math.toRadians(lat);
+            return Math.log(Math.tan(Math.PI / 4 + phi / 2)) * 256.0 * (1L << zoom) / (2 * Math.PI);
+        }
+
+        double centerLat() {
+            double y = row * GRID_PX * 2 * Math.PI / (256.0 * (1L << zoom));
+            return Math.toDegrees(Math.atan(Math.sinh(y)));
+        }
+
+        double centerLon() {
+            return column * gridDegrees(zoom);
+        }
+
+        // The tile one full image away in the given direction (-1, 0 or 1 each)
+        Tile neighbour(int dRow, int dColumn) {
+            long rows = Math.max(1, Math.round((double) height / GRID_PX));
+            long columns = Math.max(1, Math.round((double) width / GRID_PX));
+            return new Tile(zoom, width, height, row + dRow * rows, column + dColumn * columns);
+        }
+
+        // "m": rows on the Mercator grid; files from the older degree grid are never looked up again and
+        // age out of the LRU
+        String fileName() {
+            return "m" + zoom + "_" + width + "x" + height + "_" + row + "_" + column + ".png";
+        }
+
+        URI uri() {
+            return URI.create(String.format(Locale.ROOT, "%s&ll=%.6f,%.6f&z=%d&size=%d,%d",
+                    MAP_URL, centerLon(), centerLat(), zoom, width, height));
+        }
+    }
+
+    MapTileCache(Path dir, long maxDiskBytes, HttpTransport httpTransport) {
+        this.disk = new DiskLru(dir, maxDiskBytes);
+        this.httpTransport = httpTransport;
+    }
+
+    static MapTileCache create(HttpTransport httpTransport) {
+        return new MapTileCache(AppPaths.cacheFile("maps"), DEFAULT_MAX_DISK_BYTES, httpTransport);
+    }
+
+    // Already decoded and in memory, or null; cheap enough for the FX thread
+    synchronized Image cached(Tile tile) {
+        return decoded.get(tile);
+    }
+
+    // Disk or network, decoded in the background
+    CompletableFuture<Image> load(Tile tile) {
+        Image image = cached(tile);
+        if (image != null) {
+            return CompletableFuture.completedFuture(image);
+        }
+        return download(tile).thenApplyAsync(png -> {
+            Image decodedImage = new Image(new ByteArrayInputStream(png));
+            if (decodedImage.isError()) {
+                throw new IllegalStateException("Undecodable map image for " + tile.uri(), decodedImage.getException());
+            }
+            synchronized (this) {
+                decoded.put(tile, decodedImage);
+            }
+            return decodedImage;
+        }, MAP_EXECUTOR);
+    }
+
+    // Downloads the eight surrounding images to disk only (no decoding), skipping ones already stored.
+    // Returns at once: even the stored-or-not checks run on MAP_EXECUTOR, off the FX thread.
+    void prefetchAround(Tile tile) {
+        MAP_EXECUTOR.execute(() -> {
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dColumn = -1; dColumn <= 1; dColumn++) {
+                    Tile neighbour = tile.neighbour(dRow, dColumn);
+                    // a stat, so stored neighbours aren't read into memory just to be dropped
+                    if ((dRow != 0 || dColumn != 0) && !disk.contains(neighbour.fileName())) {
+                        download(neighbour);
+                    }
+                }
+            }
+        });
+    }
+
+    // One download per tile at a time; prefetches and a user request for the same tile share it
+    private CompletableFuture<byte[]> download(Tile tile) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = downloads.putIfAbsent(tile, future);
+        if (running != null) {
+            return running;
+        }
+        MAP_EXECUTOR.execute(() -> {
+            try {
+                byte[] png = disk.read(tile.fileName());
+                if (png == null) {
+                    png = httpTransport.getBytes(tile.uri());
+                    disk.write(tile.fileName(), png);
+                }
+                future.complete(png);
+            } catch (IOException | InterruptedException e) {
+                future.completeExceptionally(e);
+            } finally {
+                downloads.remove(tile, future);
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.smartcity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Current weather for many cities in as few round trips as possible. A city's OpenWeather id is
+// learned from its first by-name call and remembered (also across launches). Cities with a known
+// id are then fetched MAX_GROUP_SIZE at a time through the group endpoint, so a dozen districts
+// cost one call. Cities without an id yet, and any batch the group call fails for, fall back to
+// single-city calls, at most MAX_PARALLEL_SINGLE at a time.
+// Every report also lands in the WeatherCache, so the single-city screen starts warm.
+final class MultiCityWeather {
+
+    static final int MAX_PARALLEL_SINGLE = 4;
+
+    private final OpenWeatherClient client;
+    private final WeatherCache cache;
+    private final Path idFile;
+    private final Map<String, Long> cityIds = new ConcurrentHashMap<>();
+
+    // reports and failures keyed by the city names passed in, in the same order
+    record Result(Map<String, WeatherReport> reports, Map<String, Throwable> failures, int requests) {
+    }
+
+    MultiCityWeather(OpenWeatherClient client, WeatherCache cache, Path idFile) {
+        this.client = client;
+        this.cache = cache;
+        this.idFile = idFile;
+        loadIds();
+    }
+
+    // Reads the remembered city ids from the per-user cache directory
+    static MultiCityWeather create(OpenWeatherClient client, WeatherCache cache) {
+        return new MultiCityWeather(client, cache, AppPaths.cacheFile("weather-city-ids.properties"));
+    }
+
+    // Blocking; call from a background thread
+    Result fetchAll(List<String> cities) throws InterruptedException {
+        return fetchAll(cities, false);
+    }
+
+    // With useFresh, cities whose cached report is still within the WeatherCache TTL are answered
+    // from the cache, so reopening a window right after a refresh costs no calls
+    Result fetchAll(List<String> cities, boolean useFresh) throws InterruptedException {
+        Map<String, WeatherReport> reports = new ConcurrentHashMap<>();
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        AtomicInteger requests = new AtomicInteger();
+
+        Map<Long, String> byId = new LinkedHashMap<>();
+        List<String> single = new ArrayList<>();
+        for (String city : cities) {
+            WeatherReport cached = useFresh ? cache.fresh(WeatherCache.cityKey(city)) : null;
+            if (cached != null) {
+                reports.put(city, cached);
+                continue;
+            }
+            Long id = cityIds.get(WeatherCache.cityKey(city));
+            if (id != null && !byId.containsKey(id)) {
+                byId.put(id, city);
+            } else {
+                single.add(city);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += OpenWeatherClient.MAX_GROUP_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + OpenWeatherClient.MAX_GROUP_SIZE));
+            try {
+                requests.incrementAndGet();
+                for (WeatherReport report : client.group(batch)) {
+                    String city = byId.get(report.cityId());
+                    if (city != null) {
+                        reports.put(city, report);
+                        remember(city, report);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Group weather call failed, falling back to single calls: " + e.getMessage());
+            }
+            for (long id : batch) {
+                String city = byId.get(id);
+                if (!reports.containsKey(city)) {
+                    single.add(city);
+                }
+            }
+        }
+
+        if (!single.isEmpty()) {
+            Semaphore permits = new Semaphore(MAX_PARALLEL_SINGLE);
+            List<Callable<Void>> calls = new ArrayList<>();
+            for (String city : single) {
+                // Every city ends up with a report or a failure, whatever went wrong, so its card shows it
+                calls.add(() -> {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failures.put(city, e);
+                        return null;
+                    }
+                    try {
+                        requests.incrementAndGet();
+                        WeatherReport report = client.current(city);
+                        reports.put(city, report);
+                        remember(city, report);
+                    } catch (Exception e) {
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                        }
+                        failures.put(city, e);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+            }
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                executor.invokeAll(calls);
+            }
+            saveIds();
+        }
+
+        Map<String, WeatherReport> orderedReports = new LinkedHashMap<>();
+        Map<String, Throwable> orderedFailures = new LinkedHashMap<>();
+        for (String city : cities) {
+            if (reports.containsKey(city)) {
+                orderedReports.put(city, reports.get(city));
+            } else if (failures.containsKey(city)) {
+                orderedFailures.put(city, failures.get(city));
+            }
+        }
+        return new Result(orderedReports, orderedFailures, requests.get());
+    }
+
+    private void remember(String city, WeatherReport report) {
+        cache.put(WeatherCache.cityKey(city), report);
+        if (report.cityId() != 0) {
+            cityIds.put(WeatherCache.cityKey(city), report.cityId());
+            cache.put(WeatherCache.cityIdKey(report.cityId()), report);
+        }
+    }
+
+    private void loadIds() {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(idFile)) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return; // first launch
+        } catch (IOException e) {
+            System.err.println("Could not read city ids " + idFile + ": " + e.getMessage());
+            return;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                cityIds.put(key, Long.parseLong(properties.getProperty(key)));
+            } catch (NumberFormatException e) {
+                // ignore the entry, the city will be resolved again
+            }
+        }
+    }
+
+    private synchronized void saveIds() {
+        Properties properties = new Properties();
+        cityIds.forEach((key, id) -> properties.setProperty(key, Long.toString(id)));
+        try {
+            Path tmp = idFile.resolveSibling(idFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, "OpenWeather city ids");
+            }
+            Files.move(tmp, idFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write city ids " + idFile + ": " + e.getMessage());
+        }
+    }
+}
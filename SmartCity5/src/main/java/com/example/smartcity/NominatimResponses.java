@@ -0,0 +1,84 @@
+package com.example.smartcity;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Pulls just the fields the app uses out of Nominatim /search and /reverse responses.
+final class NominatimResponses {
+
+    record Address(String city, String town, String village, String county) {
+
+        // Most specific settlement name Nominatim gave us, or null
+        String settlementName() {
+            if (city != null) {
+                return city;
+            } else if (town != null) {
+                return town;
+            } else if (village != null) {
+                return village;
+            }
+            return county;
+        }
+    }
+
+    private NominatimResponses() {
+    }
+
+    // {lat, lon} of the first hit of a /search?format=json response, or null when there were no hits
+    static double[] parseSearch(InputStream body) throws IOException {
+        try (JsonPullParser parser = new JsonPullParser(body)) {
+            parser.beginArray();
+            if (!parser.hasNext()) {
+                return null;
+            }
+
+            double lat = Double.NaN;
+            double lon = Double.NaN;
+            parser.beginObject();
+            while (parser.hasNext()) {
+                switch (parser.nextName()) {
+                    case "lat" -> lat = parser.nextDouble();
+                    case "lon" -> lon = parser.nextDouble();
+                    default -> parser.skipValue();
+                }
+                if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
+                    return new double[]{lat, lon}; // the rest of the document is of no interest
+                }
+            }
+            throw new IOException("Nominatim result without lat/lon");
+        }
+    }
+
+    // The address block of a /reverse?format=jsonv2 response, or null when there is none
+    static Address parseReverse(InputStream body) throws IOException {
+        try (JsonPullParser parser = new JsonPullParser(body)) {
+            parser.beginObject();
+            while (parser.hasNext()) {
+                if (parser.nextName().equals("address")) {
+                    return readAddress(parser);
+                }
+                parser.skipValue();
+            }
+            return null;
+        }
+    }
+
+    private static Address readAddress(JsonPullParser parser) throws IOException {
+        String city = null;
+        String town = null;
+        String village = null;
+        String county = null;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "city" -> city = parser.nextString();
+                case "town" -> town = parser.nextString();
+                case "village" -> village = parser.nextString();
+                case "county" -> county = parser.nextString();
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return new Address(city, town, village, county);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.smartcity;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Every Nominatim call goes through here. Nominatim's usage policy allows about one request per
+// second, so calls are released by a token bucket (REQUESTS_PER_SECOND, burst BURST) instead of
+// whenever the UI asks. Waiting calls for the same URL share one request, interactive calls jump
+// ahead of background ones, and a 429/503 pauses the whole queue for the server's Retry-After (or
+// an exponential backoff) before the call is retried.
+final class NominatimScheduler {
+
+    static final double REQUESTS_PER_SECOND = 1.0;
+    static final int BURST = 1;
+    static final int MAX_ATTEMPTS = 4;
+    static final long MIN_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private final HttpTransport httpTransport;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+    private final PriorityQueue<Job> queue = new PriorityQueue<>(
+            Comparator.comparing((Job job) -> job.priority).thenComparingLong(job -> job.sequence));
+    // queued or running, by URL
+    private final Map<URI, Job> pending = new HashMap<>();
+    private long sequence;
+    private double tokens = BURST;
+    private long lastRefill = System.nanoTime();
+    private long pausedUntil;
+    private long backoffMillis = MIN_BACKOFF_MILLIS;
+    private boolean dispatchScheduled;
+    private long sent;
+    private long deduplicated;
+    private long throttled;
+    private long dropped;
+
+    private static final class Job {
+        final URI uri;
+        final long sequence;
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        Priority priority;
+        int attempts;
+        // callers whose future is not cancelled yet
+        int callers;
+
+        Job(URI uri, Priority priority, long sequence) {
+            this.uri = uri;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    NominatimScheduler(HttpTransport httpTransport, ScheduledExecutorService timer) {
+        this.httpTransport = httpTransport;
+        this.timer = timer;
+    }
+
+    // Nominatim's limit is per client, so a process should have only one of these
+    static NominatimScheduler create(HttpTransport httpTransport) {
+        return new NominatimScheduler(httpTransport, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nominatim-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    // Body of a 200 response; fails with an IOException for other statuses. Cancel the returned future
+    // once the answer is no longer needed: a job still waiting in the queue is dropped (and uses no
+    // token) when all of its callers have cancelled. A request already sent runs to completion.
+    CompletableFuture<byte[]> fetch(URI uri, Priority priority) {
+        Job job;
+        synchronized (this) {
+            job = pending.get(uri);
+            if (job != null) {
+                deduplicated++;
+                if (priority.compareTo(job.priority) < 0 && queue.remove(job)) {
+                    job.priority = priority;
+                    queue.add(job);
+                }
+            } else {
+                job = new Job(uri, priority, sequence++);
+                pending.put(uri, job);
+                queue.add(job);
+                scheduleDispatch(0);
+            }
+            job.callers++;
+        }
+        CompletableFuture<byte[]> caller = job.result.copy();
+        Job callerJob = job;
+        caller.whenComplete((body, error) -> {
+            if (caller.isCancelled()) {
+                release(callerJob);
+            }
+        });
+        return caller;
+    }
+
+    synchronized String stats() {
+        return String.format(Locale.ROOT, "nominatim: %d requests sent, %d deduplicated, %d dropped, %d throttled, %d queued",
+                sent, deduplicated, dropped, throttled, queue.size());
+    }
+
+    private void release(Job job) {
+        synchronized (this) {
+            if (--job.callers > 0 || !queue.remove(job)) {
+                return; // still wanted, or already sent
+            }
+            pending.remove(job.uri, job);
+            dropped++;
+        }
+        job.result.cancel(false);
+    }
+
+    private synchronized void scheduleDispatch(long delayMillis) {
+        if (!dispatchScheduled) {
+            dispatchScheduled = true;
+            timer.schedule(this::dispatch, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Runs on the timer thread: releases one job if a token is available, then re-arms for the next
+    private void dispatch() {
+        Job job;
+        synchronized (this) {
+            dispatchScheduled = false;
+            if (queue.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now < pausedUntil) {
+                scheduleDispatch(pausedUntil - now);
+                return;
+            }
+            refill();
+            if (tokens < 1) {
+                scheduleDispatch((long) Math.ceil((1 - tokens) * 1000 / REQUESTS_PER_SECOND));
+                return;
+            }
+            tokens -= 1;
+            job = queue.poll();
+            sent++;
+            if (!queue.isEmpty()) {
+                scheduleDispatch((long) Math.ceil(Math.max(0, 1 - tokens) * 1000 / REQUESTS_PER_SECOND));
+            }
+        }
+        requests.execute(() -> run(job));
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(BURST, tokens + (now - lastRefill) / 1e9 * REQUESTS_PER_SECOND);
+        lastRefill = now;
+    }
+
+    private void run(Job job) {
+        try (HttpTransport.Response response = httpTransport.get(job.uri)) {
+            int status = response.statusCode();
+            if (status == 200) {
+                byte[] body = response.bytes();
+                synchronized (this) {
+                    backoffMillis = MIN_BACKOFF_MILLIS;
+                }
+                finish(job, body, null);
+            } else if (status == 429 || status == 503) {
+                retryLater(job, status, response.headers().firstValue("Retry-After").orElse(null));
+            } else {
+                finish(job, null, new IOException("Nominatim returned HTTP " + status));
+            }
+        } catch (IOException e) {
+            finish(job, null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, null, e);
+        } catch (RuntimeException e) {
+            // e.g. an UncheckedIOException from the body; must still complete the job, or every
+            // later caller for this URL would wait on it forever
+            finish(job, null, e);
+        }
+    }
+
+    // Pauses the whole queue (the limit is per client, not per query) and puts the job back in front
+    private void retryLater(Job job, int status, String retryAfter) {
+        synchronized (this) {
+            throttled++;
+            long delay = retryAfterMillis(retryAfter);
+            if (delay < 0) {
+                delay = backoffMillis;
+                backoffMillis = Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+            }
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + delay);
+            if (++job.attempts < MAX_ATTEMPTS) {
+                queue.add(job);
+                scheduleDispatch(delay);
+                return;
+            }
+        }
+        finish(job, null, new IOException("Nominatim still throttling (HTTP " + status + ") after " + MAX_ATTEMPTS + " attempts"));
+    }
+
+    private void finish(Job job, byte[] body, Throwable error) {
+        synchronized (this) {
+            pending.remove(job.uri, job);
+        }
+        if (error != null) {
+            job.result.completeExceptionally(error);
+        } else {
+            job.result.complete(body);
+        }
+    }
+
+    // Retry-After is either delay-seconds or an HTTP date; -1 if absent or unreadable
+    static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        try {
+            return Math.min(MAX_BACKOFF_MILLIS, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            // not a number, try a date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            long millis = Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis();
+            return Math.min(MAX_BACKOFF_MILLIS, Math.max(0, millis));
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.smartcity;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+// The OpenWeather current-weather calls: one city by name, or up to MAX_GROUP_SIZE cities by id in
+// a single round trip (the /group endpoint). Blocking; call from a background thread.
+final class OpenWeatherClient {
+
+    static final int MAX_GROUP_SIZE = 20;
+    private static final String API_KEY = "06b7e855452d0401cb4baf34222e5847";
+    private static final String BASE_URL = "https://api.openweathermap.org/data/2.5/";
+
+    private final HttpTransport httpTransport;
+
+    // Non-200 answers from OpenWeather
+    static final class StatusException extends IOException {
+        final int statusCode;
+
+        StatusException(int statusCode) {
+            super("HTTP " + statusCode);
+            this.statusCode = statusCode;
+        }
+    }
+
+    OpenWeatherClient(HttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+    }
+
+    WeatherReport current(String city) throws IOException, InterruptedException {
+        return currentIfChanged(city, null).report();
+    }
+
+    // A by-name call that sends the previous ETag, if any. A 304 answer comes back with report == null.
+    // (OpenWeather doesn't always send validators; without one this is a plain call.)
+    Conditional currentIfChanged(String city, String etag) throws IOException, InterruptedException {
+        String urlString = BASE_URL + "weather?q=" + URLEncoder.encode(city, StandardCharsets.UTF_8) + "&appid=" + API_KEY + "&units=metric";
+        String[] headers = etag != null ? new String[]{"If-None-Match", etag} : new String[0];
+        try (HttpTransport.Response response = httpTransport.get(URI.create(urlString), headers)) {
+            if (response.statusCode() == 304 && etag != null) {
+                return new Conditional(null, etag);
+            }
+            if (response.statusCode() != 200) {
+                throw new StatusException(response.statusCode());
+            }
+            return new Conditional(WeatherReport.parse(response.body()),
+                    response.headers().firstValue("ETag").orElse(null));
+        }
+    }
+
+    record Conditional(WeatherReport report, String etag) {
+
+        boolean notModified() {
+            return report == null;
+        }
+    }
+
+    // Reports for up to MAX_GROUP_SIZE city ids; ids OpenWeather doesn't know are simply missing
+    List<WeatherReport> group(List<Long> cityIds) throws IOException, InterruptedException {
+        if (cityIds.size() > MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("at most " + MAX_GROUP_SIZE + " cities per group call");
+        }
+        StringJoiner ids = new StringJoiner(",");
+        for (long id : cityIds) {
+            ids.add(Long.toString(id));
+        }
+        String urlString = BASE_URL + "group?id=" + ids + "&appid=" + API_KEY + "&units=metric";
+        try (HttpTransport.Response response = httpTransport.get(URI.create(urlString))) {
+            if (response.statusCode() != 200) {
+                throw new StatusException(response.statusCode());
+            }
+            return readGroup(new JsonPullParser(response.body()));
+        }
+    }
+
+    // {"cnt": n, "list": [<weather object>, ...]}
+    private static List<WeatherReport> readGroup(JsonPullParser parser) throws IOException {
+        List<WeatherReport> reports = new ArrayList<>();
+        try (parser) {
+            parser.beginObject();
+            while (parser.hasNext()) {
+                if (parser.nextName().equals("list")) {
+                    parser.beginArray();
+                    while (parser.hasNext()) {
+                        reports.add(WeatherReport.read(parser));
+                    }
+                    parser.endArray();
+                } else {
+                    parser.skipValue();
+                }
+            }
+            parser.endObject();
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.smartcity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Keeps subscribed data fresh in the background on one shared scheduler thread. The thread only
+// sets timers; the refresh work itself is asynchronous (the task returns a future), so it is never
+// blocked by the network.
+//
+// Each subscription starts at the base interval. Every refresh that finds nothing new stretches it
+// by UNCHANGED_FACTOR up to MAX_INTERVAL_MILLIS, and a change resets it. Errors back off
+// exponentially from ERROR_DELAY_MILLIS. All delays are jittered by +-JITTER, so subscriptions
+// don't synchronize. Inactive subscriptions (e.g. minimized windows) have no timer at all and
+// catch up as soon as they become active again.
+final class RefreshScheduler {
+
+    static final long DEFAULT_BASE_INTERVAL_MILLIS = WeatherCache.DEFAULT_TTL_MILLIS;
+    static final long MAX_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    static final long ERROR_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    static final double UNCHANGED_FACTOR = 1.5;
+    static final double JITTER = 0.1;
+
+    private final ScheduledExecutorService timer;
+
+    enum Outcome {
+        CHANGED,
+        UNCHANGED
+    }
+
+    @FunctionalInterface
+    interface Task {
+        // Fetches and applies new data; completes exceptionally on errors
+        CompletableFuture<Outcome> refresh();
+    }
+
+    RefreshScheduler(ScheduledExecutorService timer) {
+        this.timer = timer;
+    }
+
+    static RefreshScheduler create() {
+        return new RefreshScheduler(Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    // The first refresh runs after one (jittered) base interval, since callers usually just fetched
+    Subscription schedule(long baseIntervalMillis, Task task) {
+        Subscription subscription = new Subscription(baseIntervalMillis, task);
+        subscription.arm(jittered(baseIntervalMillis));
+        return subscription;
+    }
+
+    Subscription schedule(Task task) {
+        return schedule(DEFAULT_BASE_INTERVAL_MILLIS, task);
+    }
+
+    private static long jittered(long delayMillis) {
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+        return Math.max(0, (long) (delayMillis * factor));
+    }
+
+    final class Subscription {
+        private final long baseIntervalMillis;
+        private final Task task;
+        private long intervalMillis;
+        private long errorDelayMillis = ERROR_DELAY_MILLIS;
+        private long nextDueAt;
+        private ScheduledFuture<?> pending;
+        private boolean active = true;
+        private boolean running;
+        private boolean cancelled;
+
+        private Subscription(long baseIntervalMillis, Task task) {
+            this.baseIntervalMillis = baseIntervalMillis;
+            this.task = task;
+            this.intervalMillis = baseIntervalMillis;
+        }
+
+        // Pausing drops the timer; resuming refreshes right away if a refresh became due meanwhile
+        synchronized void setActive(boolean active) {
+            if (this.active == active || cancelled) {
+                return;
+            }
+            this.active = active;
+            if (!active) {
+                disarm();
+            } else if (!running) {
+                arm(Math.max(0, nextDueAt - System.currentTimeMillis()));
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            disarm();
+        }
+
+        private synchronized void arm(long delayMillis) {
+            disarm();
+            nextDueAt = System.currentTimeMillis() + delayMillis;
+            pending = timer.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void disarm() {
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+        }
+
+        private void run() {
+            synchronized (this) {
+                pending = null;
+                if (!active || cancelled) {
+                    return;
+                }
+                running = true;
+            }
+            CompletableFuture<Outcome> refresh;
+            try {
+                refresh = task.refresh();
+            } catch (RuntimeException e) {
+                refresh = CompletableFuture.failedFuture(e);
+            }
+            refresh.whenComplete(this::completed);
+        }
+
+        private synchronized void completed(Outcome outcome, Throwable error) {
+            running = false;
+            long delay;
+            if (error != null) {
+                delay = errorDelayMillis;
+                errorDelayMillis = Math.min(MAX_INTERVAL_MILLIS, errorDelayMillis * 2);
+            } else {
+                errorDelayMillis = ERROR_DELAY_MILLIS;
+                intervalMillis = outcome == Outcome.CHANGED
+                        ? baseIntervalMillis
+                        : Math.min(MAX_INTERVAL_MILLIS, (long) (intervalMillis * UNCHANGED_FACTOR));
+                delay = intervalMillis;
+            }
+            if (cancelled) {
+                return;
+            }
+            if (active) {
+                arm(jittered(delay));
+            } else {
+                nextDueAt = System.currentTimeMillis() + delay; // picked up by setActive(true)
+            }
+        }
+    }
+}
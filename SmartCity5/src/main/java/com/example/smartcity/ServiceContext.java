@@ -0,0 +1,123 @@
+package com.example.smartcity;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Everything the windows share: the station store and its index, the gazetteer, geocoding, weather,
+// icon and map caches, and the HTTP client. SmartCity creates one and hands it to every window it
+// opens, so a reopened window finds all of it warm instead of loading it again. A window started on
+// its own (no-arg constructor) creates its own; so does the headless server.
+//
+// Each service is built on first use and then kept. Construction does no I/O, and warmUp() builds
+// the expensive ones on a background thread while the menu sits idle. Create one per process: the
+// caches write per-user files, and Nominatim's rate limit is per client.
+final class ServiceContext {
+
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+
+    private HttpTransport httpTransport;
+    private Gazetteer gazetteer;
+    private Geocoder geocoder;
+    private WeatherCache weatherCache;
+    private OpenWeatherClient openWeather;
+    private MultiCityWeather multiCityWeather;
+    private IconCache iconCache;
+    private MapTileCache mapTiles;
+    private RefreshScheduler refreshScheduler;
+    private CompletableFuture<StationStore> stations;
+    private CompletableFuture<Void> warmUp;
+
+    synchronized HttpTransport httpTransport() {
+        if (httpTransport == null) {
+            httpTransport = HttpTransport.create();
+        }
+        return httpTransport;
+    }
+
+    synchronized Gazetteer gazetteer() {
+        if (gazetteer == null) {
+            gazetteer = Gazetteer.loadBundled();
+        }
+        return gazetteer;
+    }
+
+    synchronized Geocoder geocoder() {
+        if (geocoder == null) {
+            geocoder = new Geocoder(gazetteer(), GeocodeCache.create(), NominatimScheduler.create(httpTransport()));
+        }
+        return geocoder;
+    }
+
+    synchronized WeatherCache weatherCache() {
+        if (weatherCache == null) {
+            weatherCache = WeatherCache.create();
+        }
+        return weatherCache;
+    }
+
+    synchronized OpenWeatherClient openWeather() {
+        if (openWeather == null) {
+            openWeather = new OpenWeatherClient(httpTransport());
+        }
+        return openWeather;
+    }
+
+    synchronized MultiCityWeather multiCityWeather() {
+        if (multiCityWeather == null) {
+            multiCityWeather = MultiCityWeather.create(openWeather(), weatherCache());
+        }
+        return multiCityWeather;
+    }
+
+    synchronized IconCache iconCache() {
+        if (iconCache == null) {
+            iconCache = IconCache.create(httpTransport());
+        }
+        return iconCache;
+    }
+
+    synchronized MapTileCache mapTiles() {
+        if (mapTiles == null) {
+            mapTiles = MapTileCache.create(httpTransport());
+        }
+        return mapTiles;
+    }
+
+    synchronized RefreshScheduler refreshScheduler() {
+        if (refreshScheduler == null) {
+            refreshScheduler = RefreshScheduler.create();
+        }
+        return refreshScheduler;
+    }
+
+    // The bundled stations, mapped and indexed once. A failed load is retried on the next call.
+    synchronized CompletableFuture<StationStore> stations() {
+        if (stations == null || stations.isCompletedExceptionally()) {
+            stations = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return StationStore.openResource("/" + FireStationApp.STATION_FILE);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, loader);
+        }
+        return stations;
+    }
+
+    // Loads the gazetteer, the geocode cache, the station store and the disk caches in the background.
+    // Only the first call does anything.
+    synchronized CompletableFuture<Void> warmUp() {
+        if (warmUp == null) {
+            warmUp = CompletableFuture.allOf(stations(), CompletableFuture.runAsync(() -> {
+                geocoder();
+                iconCache();
+                mapTiles();
+                multiCityWeather();
+            }, loader));
+        }
+        return warmUp;
+    }
+}
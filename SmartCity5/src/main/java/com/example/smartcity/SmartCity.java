@@ -2,6 +2,7 @@ package com.example.smartcity;
 
 import javafx.animation.ScaleTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -16,18 +17,40 @@ import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
+import java.util.List;
+
 public class SmartCity extends Application {
 
+    // One set of stores and caches for every window opened from the menu
+    private final ServiceContext services = new ServiceContext();
     private Stage primaryStage;
 
     public static void main(String[] args) {
+        StartupTrace.mark(StartupTrace.MAIN);
         launch(args);
     }
 
     @Override
     public void start(Stage primaryStage) {
+        StartupTrace.mark(StartupTrace.FX_START);
         this.primaryStage = primaryStage;
         showSmartCityMainMenu();
+        // The menu is laid out and shown; the next free turn of the event loop is when a click would land
+        Platform.runLater(() -> {
+            StartupTrace.mark(StartupTrace.MENU_INTERACTIVE);
+            services.warmUp();
+            if (getParameters().getRaw().contains(StartupRun.ARGUMENT)) {
+                StartupRun.start(List.of(
+                        new StartupRun.Step(StartupTrace.DISTANCE_RESULT, this::launchDistanceCalculator),
+                        new StartupRun.Step(StartupTrace.FIRE_STATION_RESULT, this::launchFireStationApp,
+                                scene -> StartupRun.click(scene, "#findStationButton")),
+                        new StartupRun.Step(StartupTrace.WEATHER_RESULT, this::launchWeatherApp, scene -> {
+                            StartupRun.type(scene, "#cityField", "Rangpur");
+                            StartupRun.click(scene, "#getWeatherButton");
+                        }),
+                        new StartupRun.Step(StartupTrace.DASHBOARD_RESULT, this::launchWeatherDashboard)));
+            }
+        });
     }
 
     private void showSmartCityMainMenu() {
@@ -44,7 +67,10 @@ public class SmartCity extends Application {
         Button btnWeather = createStyledButton("Weather App", "#1e90ff", "#00008b");
         btnWeather.setOnAction(e -> launchWeatherApp());
 
-        root.getChildren().addAll(btnDistanceCalc, btnFireStation, btnWeather);
+        Button btnWeatherDashboard = createStyledButton("Weather Dashboard", "#8a2be2", "#4b0082");
+        btnWeatherDashboard.setOnAction(e -> launchWeatherDashboard());
+
+        root.getChildren().addAll(btnDistanceCalc, btnFireStation, btnWeather, btnWeatherDashboard);
 
         Scene scene = new Scene(root, 600, 400);
         primaryStage.setTitle("Smart City Main Menu");
@@ -52,42 +78,58 @@ public class SmartCity extends Application {
         primaryStage.show();
     }
 
-    private void launchDistanceCalculator() {
+    private Stage launchDistanceCalculator() {
         Stage distanceCalcStage = new Stage();
         try {
-            new DistanceCalculatorCity().start(distanceCalcStage);
+            new DistanceCalculatorCity(services).start(distanceCalcStage);
         }catch (Exception e)
         {
             e.printStackTrace();
             System.out.println("could not start the DistanceCalculator");
         }
+        return distanceCalcStage;
 
 
     }
 
 
-    private void launchFireStationApp() {
+    private Stage launchFireStationApp() {
         Stage fireStationStage = new Stage();
         try {
-            new FireStationApp().start(fireStationStage);
+            new FireStationApp(services).start(fireStationStage);
         }catch (Exception e)
         {
             e.printStackTrace();
             System.out.println("could not start FireStationApp");
         }
+        return fireStationStage;
 
 
     }
 
-    private void launchWeatherApp() {
+    private Stage launchWeatherApp() {
         Stage weatherStage = new Stage();
         try {
-            new WeatherApp().start(weatherStage);
+            new WeatherApp(services).start(weatherStage);
         }catch (Exception e)
         {
             e.printStackTrace();
             System.out.println("could not start the WeatherApp");
         }
+        return weatherStage;
+
+    }
+
+    private Stage launchWeatherDashboard() {
+        Stage dashboardStage = new Stage();
+        try {
+            new WeatherDashboard(services).start(dashboardStage);
+        }catch (Exception e)
+        {
+            e.printStackTrace();
+            System.out.println("could not start the WeatherDashboard");
+        }
+        return dashboardStage;
 
     }
 
@@ -0,0 +1,287 @@
+package com.example.smartcity;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Headless mode: the same geocoding, station and weather services as the JavaFX screens, served as
+// JSON over the JDK's built-in HttpServer with one virtual thread per request. Run with
+//   java -p <module path> -m com.example.smartcity/com.example.smartcity.SmartCityServer [port]
+// (not through SmartCity: the java launcher starts the JavaFX toolkit for Application main classes
+// before main() runs, which fails without a display). Endpoints (GET only):
+//   /api/geocode?q=Rangpur                       {"query", "lat", "lon"}
+//   /api/distance?from=Rangpur&to=Dhaka          {"from": {...}, "to": {...}, "distanceKm"}
+//   /api/stations/nearest?lat=&lon=[&k=][&maxKm=] {"stations": [{"rank", "name", "phone", ...}]}
+//   /api/weather?city=Rangpur                    the cached OpenWeather report
+//   /health
+final class SmartCityServer {
+
+    static final int DEFAULT_PORT = Integer.getInteger("smartcity.server.port", 8080);
+    static final int DEFAULT_NEAREST = 5;
+    static final int MAX_NEAREST = 100;
+
+    private final Geocoder geocoder;
+    private final Gazetteer gazetteer;
+    private final StationStore stationStore;
+    private final WeatherCache weatherCache;
+    private final OpenWeatherClient openWeather;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private HttpServer server;
+
+    // Bad query parameters, answered with 400
+    private static final class BadRequestException extends IllegalArgumentException {
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    private record Reply(int status, JSONObject body) {
+
+        static Reply ok(JSONObject body) {
+            return new Reply(200, body);
+        }
+
+        static Reply error(int status, String message) {
+            return new Reply(status, new JSONObject().put("error", message));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        Reply handle(Map<String, String> params) throws Exception;
+    }
+
+    SmartCityServer(Geocoder geocoder, Gazetteer gazetteer, StationStore stationStore,
+                    WeatherCache weatherCache, OpenWeatherClient openWeather) {
+        this.geocoder = geocoder;
+        this.gazetteer = gazetteer;
+        this.stationStore = stationStore;
+        this.weatherCache = weatherCache;
+        this.openWeather = openWeather;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        ServiceContext services = new ServiceContext();
+        SmartCityServer server = new SmartCityServer(services.geocoder(), services.gazetteer(),
+                StationStore.openResource("/" + FireStationApp.STATION_FILE), services.weatherCache(), services.openWeather());
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "server-shutdown"));
+        System.out.println("SmartCity server listening on port " + server.port());
+    }
+
+    void start(int port) throws IOException {
+        // Without TCP_NODELAY small JSON replies sit out the client's delayed ACK: ~40 ms per request.
+        // Read once, when the server implementation is first loaded.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        route("/api/geocode", this::geocode);
+        route("/api/distance", this::distance);
+        route("/api/stations/nearest", this::nearestStations);
+        route("/api/weather", this::weather);
+        route("/health", params -> Reply.ok(new JSONObject().put("status", "ok")));
+        route("/", params -> Reply.error(404, "not found"));
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(1);
+        executor.shutdown();
+        geocoder.flush();
+    }
+
+    private void route(String path, Endpoint endpoint) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                Reply reply;
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    reply = Reply.error(404, "not found");
+                } else if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", "GET");
+                    reply = Reply.error(405, "method not allowed");
+                } else {
+                    reply = call(endpoint, exchange);
+                }
+                send(exchange, reply);
+            }
+        });
+    }
+
+    private static Reply call(Endpoint endpoint, HttpExchange exchange) {
+        try {
+            return endpoint.handle(queryParams(exchange.getRequestURI().getRawQuery()));
+        } catch (BadRequestException e) {
+            return Reply.error(400, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Reply.error(503, "interrupted");
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof UncheckedIOException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof OpenWeatherClient.StatusException status && status.statusCode == 404) {
+                return Reply.error(404, "unknown city");
+            }
+            // e.g. a ConnectException has no message
+            return Reply.error(502, "upstream error: "
+                    + (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()));
+        }
+    }
+
+    private static void send(HttpExchange exchange, Reply reply) throws IOException {
+        byte[] body = reply.body().toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(reply.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Reply geocode(Map<String, String> params) throws IOException, InterruptedException {
+        String query = required(params, "q");
+        JSONObject place = place(query);
+        return place != null ? Reply.ok(place) : Reply.error(404, "location not found: " + query);
+    }
+
+    private Reply distance(Map<String, String> params) throws Exception {
+        String from = required(params, "from");
+        String to = required(params, "to");
+        // both ends resolve at the same time, as in the distance screen
+        CompletableFuture<JSONObject> endLookup = CompletableFuture.supplyAsync(() -> {
+            try {
+                return place(to);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, executor);
+        JSONObject start = place(from);
+        JSONObject end = endLookup.get();
+        if (start == null || end == null) {
+            return Reply.error(404, "location not found: " + (start == null ? from : to));
+        }
+        double distance = GeoMath.haversineKm(start.getDouble("lat"), start.getDouble("lon"), end.getDouble("lat"), end.getDouble("lon"));
+        return Reply.ok(new JSONObject().put("from", start).put("to", end).put("distanceKm", distance));
+    }
+
+    // Null if there is no such place; IOException if the geocoder couldn't tell (answered with 502)
+    private JSONObject place(String query) throws IOException, InterruptedException {
+        double[] coords = geocoder.coordinates(query, NominatimScheduler.Priority.INTERACTIVE);
+        if (coords == null) {
+            return null;
+        }
+        return new JSONObject().put("query", query).put("lat", coords[0]).put("lon", coords[1]);
+    }
+
+    private Reply nearestStations(Map<String, String> params) {
+        double lat = number(params, "lat", Double.NaN);
+        double lon = number(params, "lon", Double.NaN);
+        if (!(Math.abs(lat) <= 90) || !(Math.abs(lon) <= 180)) {
+            throw new BadRequestException("lat and lon are required");
+        }
+        double k = number(params, "k", DEFAULT_NEAREST);
+        if (k < 1 || k > MAX_NEAREST || k != Math.rint(k)) {
+            throw new BadRequestException("k must be a whole number from 1 to " + MAX_NEAREST);
+        }
+        // same rule as the station finder: missing means no cutoff, anything else must be a positive distance
+        double maxKm = number(params, "maxKm", Double.POSITIVE_INFINITY);
+        if (!(maxKm > 0)) {
+            throw new BadRequestException("maxKm must be a positive number of km");
+        }
+
+        List<GeoKdTree.Hit> nearest = stationStore.index().nearest(lat, lon, (int) k, maxKm);
+        JSONArray stations = new JSONArray();
+        for (int rank = 0; rank < nearest.size(); rank++) {
+            int id = nearest.get(rank).id();
+            stations.put(new JSONObject()
+                    .put("rank", rank + 1)
+                    .put("name", stationStore.name(id))
+                    .put("phone", stationStore.phoneNumber(id))
+                    .put("lat", stationStore.latitude(id))
+                    .put("lon", stationStore.longitude(id))
+                    .put("area", gazetteer.describe(stationStore.latitude(id), stationStore.longitude(id)))
+                    .put("distanceKm", nearest.get(rank).distanceKm()));
+        }
+        return Reply.ok(new JSONObject().put("stations", stations));
+    }
+
+    private Reply weather(Map<String, String> params) throws Exception {
+        String city = required(params, "city");
+        WeatherReport report = weatherCache.get(WeatherCache.cityKey(city), () -> openWeather.current(city)).get();
+        return Reply.ok(new JSONObject()
+                .put("cityId", report.cityId())
+                .put("city", report.cityName())
+                .put("temperature", report.temperature())
+                .put("humidity", report.humidity())
+                .put("windSpeed", report.windSpeed())
+                .put("windDegrees", report.windDegrees())
+                .put("description", report.description())
+                .put("icon", report.iconCode())
+                .put("sunrise", report.sunrise())
+                .put("sunset", report.sunset()));
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new BadRequestException(name + " is required");
+        }
+        return value.trim();
+    }
+
+    private static double number(Map<String, String> params, String name, double fallback) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must be a number");
+        }
+    }
+
+    static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        try {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                params.putIfAbsent(name, value);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("malformed query string");
+        }
+        return params;
+    }
+}
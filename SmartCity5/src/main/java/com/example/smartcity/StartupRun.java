@@ -0,0 +1,89 @@
+package com.example.smartcity;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ButtonBase;
+import javafx.scene.control.TextInputControl;
+import javafx.stage.Stage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// "SmartCity --startup-run": a scripted first session for the startup benchmark and the CDS training
+// run. Opens every window in turn, does what a user would do to get its first answer, waits for that
+// window's StartupTrace mark, then prints all marks and exits (status 1 if a step timed out).
+final class StartupRun {
+
+    static final String ARGUMENT = "--startup-run";
+    static final long STEP_TIMEOUT_SECONDS = 60;
+
+    record Step(String mark, Supplier<Stage> open, Consumer<Scene> firstAction) {
+
+        // For windows that fetch their first result on their own
+        Step(String mark, Supplier<Stage> open) {
+            this(mark, open, scene -> {
+            });
+        }
+    }
+
+    private final List<Step> steps;
+    private boolean failed;
+
+    private StartupRun(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    // Call on the FX thread once the main menu is up
+    static void start(List<Step> steps) {
+        new StartupRun(steps).run(0);
+    }
+
+    private void run(int index) {
+        if (index == steps.size()) {
+            finish();
+            return;
+        }
+        Step step = steps.get(index);
+        Stage stage = step.open().get();
+        if (stage == null || stage.getScene() == null) {
+            failed = true;
+            System.out.println("startup-run: could not open the window for " + step.mark());
+            run(index + 1);
+            return;
+        }
+        step.firstAction().accept(stage.getScene());
+        StartupTrace.reached(step.mark())
+                .orTimeout(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .whenComplete((millis, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        failed = true;
+                        System.out.println("startup-run: no " + step.mark() + " within " + STEP_TIMEOUT_SECONDS + " s");
+                    }
+                    stage.close();
+                    run(index + 1);
+                }));
+    }
+
+    private void finish() {
+        StartupTrace.marks().forEach((name, millis) -> System.out.println(StartupTrace.line(name, millis)));
+        Platform.exit();
+        System.exit(failed ? 1 : 0);
+    }
+
+    static void click(Scene scene, String selector) {
+        Node node = scene.lookup(selector);
+        if (node instanceof ButtonBase button) {
+            button.fire();
+        }
+    }
+
+    static void type(Scene scene, String selector, String text) {
+        Node node = scene.lookup(selector);
+        if (node instanceof TextInputControl field) {
+            field.setText(text);
+        }
+    }
+}
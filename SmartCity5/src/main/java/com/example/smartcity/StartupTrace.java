@@ -0,0 +1,58 @@
+package com.example.smartcity;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Startup milestones in milliseconds since the process started, so JVM boot, JavaFX start-up and the
+// first real answer of every window can be timed from outside (see StartupRun and the startup
+// benchmark). Only the first occurrence of each mark counts. -Dsmartcity.startupTrace=true prints
+// every mark as "startup <mark> <ms>" when it is hit.
+final class StartupTrace {
+
+    static final String MAIN = "main";
+    static final String FX_START = "fx.start";
+    static final String MENU_INTERACTIVE = "menu.interactive";
+    static final String DISTANCE_RESULT = "distance.first-result";
+    static final String FIRE_STATION_RESULT = "firestation.first-result";
+    static final String WEATHER_RESULT = "weather.first-result";
+    static final String DASHBOARD_RESULT = "dashboard.first-result";
+
+    private static final boolean PRINT = Boolean.getBoolean("smartcity.startupTrace");
+    private static final long PROCESS_START_MILLIS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElseGet(System::currentTimeMillis);
+    private static final Map<String, CompletableFuture<Long>> MARKS = new ConcurrentHashMap<>();
+
+    private StartupTrace() {
+    }
+
+    static void mark(String name) {
+        long millis = System.currentTimeMillis() - PROCESS_START_MILLIS;
+        if (reached(name).complete(millis) && PRINT) {
+            System.out.println(line(name, millis));
+        }
+    }
+
+    // Completes with the mark's time once it is hit
+    static CompletableFuture<Long> reached(String name) {
+        return MARKS.computeIfAbsent(name, key -> new CompletableFuture<>());
+    }
+
+    // Marks hit so far, by name
+    static Map<String, Long> marks() {
+        Map<String, Long> marks = new TreeMap<>();
+        MARKS.forEach((name, reached) -> {
+            if (reached.isDone() && !reached.isCompletedExceptionally()) {
+                marks.put(name, reached.join());
+            }
+        });
+        return marks;
+    }
+
+    static String line(String name, long millis) {
+        return "startup " + name + " " + millis;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.smartcity;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Fire stations in a precompiled binary file that is memory-mapped instead of parsed. Coordinates
+// are columns of primitives and names/phones live in one UTF-8 string table, so opening the store
+// costs the same for four stations or four hundred thousand, and nothing per station lands on the heap
+// until it is actually displayed. Stations are written in k-d tree order, so the spatial index is
+// part of the file too.
+//
+// Layout (big-endian):
+//   header    magic, version, count, string table size (ints), content fingerprint (long)
+//   double    lat[count], lon[count], x[count], y[count], z[count]   (x/y/z = unit vectors)
+//   int       stringOffsets[2 * count + 1]   (name of i at 2i, phone of i at 2i + 1)
+//   byte      axis[count]                    (k-d split dimension of each slot)
+//   byte      strings[string table size]
+//
+// Convert the bundled JSON with:
+//   java -p target/classes -m com.example.smartcity/com.example.smartcity.StationStore \
+//        src/main/resources/rangpur_firestations.json src/main/resources/rangpur_firestations.stations
+final class StationStore {
+
+    private static final int MAGIC = 0x53544E53; // "STNS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private final int count;
+    private final DoubleBuffer lat;
+    private final DoubleBuffer lon;
+    private final IntBuffer stringOffsets;
+    private final ByteBuffer strings;
+    private final GeoKdTree index;
+
+    private StationStore(ByteBuffer data) throws IOException {
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not a station store (or an unsupported version)");
+        }
+        count = data.getInt(8);
+        int stringBytes = data.getInt(12);
+
+        int offset = HEADER_BYTES;
+        lat = doubles(data, offset, count);
+        offset += count * Double.BYTES;
+        lon = doubles(data, offset, count);
+        offset += count * Double.BYTES;
+        DoubleBuffer x = doubles(data, offset, count);
+        offset += count * Double.BYTES;
+        DoubleBuffer y = doubles(data, offset, count);
+        offset += count * Double.BYTES;
+        DoubleBuffer z = doubles(data, offset, count);
+        offset += count * Double.BYTES;
+        stringOffsets = data.slice(offset, (2 * count + 1) * Integer.BYTES).asIntBuffer();
+        offset += (2 * count + 1) * Integer.BYTES;
+        ByteBuffer axis = data.slice(offset, count);
+        offset += count;
+        strings = data.slice(offset, stringBytes);
+
+        index = GeoKdTree.prebuilt(x, y, z, axis);
+    }
+
+    static StationStore open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new StationStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Maps a classpath resource. Resources inside a jar can't be mapped, so those are copied to the
+    // cache directory once and re-copied only when the bundled file's fingerprint changes.
+    static StationStore openResource(String resource) throws IOException {
+        URL url = StationStore.class.getResource(resource);
+        if (url == null) {
+            throw new NoSuchFileException("Could not find station store: " + resource);
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(Path.of(url.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+
+        // Named after the resource: a jar URL's path ("file:/C:/...!/x") is not a valid Path on Windows
+        Path cached = AppPaths.cacheFile(resource.substring(resource.lastIndexOf('/') + 1));
+        long bundledFingerprint;
+        try (InputStream in = url.openStream()) {
+            bundledFingerprint = readFingerprint(in);
+        }
+        boolean stale = true;
+        if (Files.exists(cached)) {
+            try (InputStream in = Files.newInputStream(cached)) {
+                stale = readFingerprint(in) != bundledFingerprint;
+            } catch (IOException e) {
+                stale = true;
+            }
+        }
+        if (stale) {
+            Path tmp = cached.resolveSibling(cached.getFileName() + ".tmp");
+            try (InputStream in = url.openStream()) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return open(cached);
+    }
+
+    int size() {
+        return count;
+    }
+
+    double latitude(int i) {
+        return lat.get(i);
+    }
+
+    double longitude(int i) {
+        return lon.get(i);
+    }
+
+    String name(int i) {
+        return string(2 * i);
+    }
+
+    String phoneNumber(int i) {
+        return string(2 * i + 1);
+    }
+
+    // Materializes one station, e.g. for display
+    FireStation station(int i) {
+        return new FireStation(latitude(i), longitude(i), phoneNumber(i), name(i));
+    }
+
+    // Spatial index over the mapped columns; hit ids are station indices of this store
+    GeoKdTree index() {
+        return index;
+    }
+
+    private String string(int n) {
+        int start = stringOffsets.get(n);
+        int end = stringOffsets.get(n + 1);
+        byte[] bytes = new byte[end - start];
+        strings.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static DoubleBuffer doubles(ByteBuffer data, int offset, int count) {
+        return data.slice(offset, count * Double.BYTES).asDoubleBuffer();
+    }
+
+    private static long readFingerprint(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a station store");
+        }
+        data.readInt(); // version
+        data.readInt(); // count
+        data.readInt(); // string table size
+        return data.readLong();
+    }
+
+    static void write(List<FireStation> stations, Path file) throws IOException {
+        int n = stations.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = stations.get(i).latitude;
+            longitudes[i] = stations.get(i).longitude;
+        }
+        GeoKdTree tree = GeoKdTree.build(latitudes, longitudes);
+
+        // string table in slot order
+        int[] offsets = new int[2 * n + 1];
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        for (int slot = 0; slot < n; slot++) {
+            FireStation station = stations.get(tree.idAt(slot));
+            offsets[2 * slot] = table.size();
+            table.writeBytes(station.name.getBytes(StandardCharsets.UTF_8));
+            offsets[2 * slot + 1] = table.size();
+            table.writeBytes(station.phoneNumber.getBytes(StandardCharsets.UTF_8));
+        }
+        offsets[2 * n] = table.size();
+        byte[] stringBytes = table.toByteArray();
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            for (int slot = 0; slot < n; slot++) {
+                out.writeDouble(latitudes[tree.idAt(slot)]);
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeDouble(longitudes[tree.idAt(slot)]);
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeDouble(tree.unitX(slot));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeDouble(tree.unitY(slot));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeDouble(tree.unitZ(slot));
+            }
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeByte(tree.axisAt(slot));
+            }
+            out.write(stringBytes);
+        }
+        byte[] body = payload.toByteArray();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(stringBytes.length);
+            out.writeLong(fingerprint(body));
+            out.write(body);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 64-bit FNV-1a over the payload
+    private static long fingerprint(byte[] body) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : body) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Reads the station JSON format ([{name, latitude, longitude, phoneNumber}, ...])
+    static List<FireStation> readJson(InputStream in) throws IOException {
+        List<FireStation> stations = new ArrayList<>();
+        try (JsonPullParser parser = new JsonPullParser(in)) {
+            parser.beginArray();
+            while (parser.hasNext()) {
+                double latitude = Double.NaN;
+                double longitude = Double.NaN;
+                String phoneNumber = "";
+                String name = "";
+                parser.beginObject();
+                while (parser.hasNext()) {
+                    switch (parser.nextName()) {
+                        case "latitude" -> latitude = parser.nextDouble();
+                        case "longitude" -> longitude = parser.nextDouble();
+                        case "phoneNumber" -> phoneNumber = parser.nextString();
+                        case "name" -> name = parser.nextString();
+                        default -> parser.skipValue();
+                    }
+                }
+                parser.endObject();
+                if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
+                    throw new IOException("Station without coordinates: " + name);
+                }
+                stations.add(new FireStation(latitude, longitude, phoneNumber, name));
+            }
+            parser.endArray();
+        }
+        return stations;
+    }
+
+    // JSON -> binary converter: StationStore <stations.json> <out.stations>
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: StationStore <stations.json> <out.stations>");
+            System.exit(2);
+        }
+        List<FireStation> stations;
+        try (InputStream in = Files.newInputStream(Path.of(args[0]))) {
+            stations = readJson(in);
+        }
+        write(stations, Path.of(args[1]));
+        System.out.println("Wrote " + stations.size() + " stations to " + args[1]);
+    }
+}
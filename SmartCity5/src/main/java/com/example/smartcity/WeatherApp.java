@@ -18,22 +18,30 @@ import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
-
-import org.json.JSONObject;
-import org.json.JSONArray;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class WeatherApp extends Application {
 
-    private static final String API_KEY = "06b7e855452d0401cb4baf34222e5847";
-    private static final String BASE_URL = "http://api.openweathermap.org/data/2.5/weather";
+    private static final double ICON_SIZE = 70;
+    private static final double EMOJI_SIZE = 100;
+    private static final String[] EMOJI_IMAGES = {"/images/sunglasses.png", "/images/cloud.png", "/images/rain.png",
+            "/images/thunder.png", "/images/snow.png", "/images/mist.png"};
+    // Icon loading; the weather calls themselves run on the cache's executor
+    private static final ExecutorService WEATHER_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    // -Dsmartcity.cacheStats=true prints the weather cache statistics when the window closes
+    private static final boolean PRINT_CACHE_STATS = Boolean.getBoolean("smartcity.cacheStats");
+    private final OpenWeatherClient openWeather;
+    private final WeatherCache weatherCache;
+    private final IconCache iconCache;
+    private final LatestRequest weatherRequest = new LatestRequest();
+    private final RefreshScheduler refreshScheduler;
+    // Background refresh of the city on screen; replaced on every search
+    private CityRefresh cityRefresh;
+    private RefreshScheduler.Subscription refreshSubscription;
+    private Stage stage;
     private Label cityLabel;
     private Label temperatureLabel;
     private Label humidityLabel;
@@ -46,9 +54,21 @@ public class WeatherApp extends Application {
     private ImageView descriptionIconView;
     private VBox weatherContainer;
 
+    public WeatherApp() {
+        this(new ServiceContext());
+    }
+
+    WeatherApp(ServiceContext services) {
+        this.openWeather = services.openWeather();
+        this.weatherCache = services.weatherCache();
+        this.iconCache = services.iconCache();
+        this.refreshScheduler = services.refreshScheduler();
+    }
+
 
     @Override
     public void start(Stage primaryStage) {
+        stage = primaryStage;
         primaryStage.setTitle("Weather App");
 
         // UI Components
@@ -57,6 +77,7 @@ public class WeatherApp extends Application {
         cityLabelText.setTextFill(Color.WHITE);
 
         TextField cityTextField = new TextField();
+        cityTextField.setId("cityField");
         cityTextField.setFont(Font.font("Arial Rounded MT Bold", 20));
         cityTextField.setStyle("-fx-background-color: #FFDDC1; -fx-text-fill: #333;");
 
@@ -64,6 +85,7 @@ public class WeatherApp extends Application {
         inputRow.setAlignment(Pos.CENTER);
 
         Button getWeatherButton = createStyledButton("Get Weather", "#FF6F61", "#D9534F");
+        getWeatherButton.setId("getWeatherButton");
 
         VBox inputArea = new VBox(15, inputRow, getWeatherButton);
         inputArea.setAlignment(Pos.CENTER);
@@ -79,11 +101,18 @@ public class WeatherApp extends Application {
         currentTimeLabel = createAnimatedLabel("", 20, Color.WHITE);
 
         weatherIconView = new ImageView();
-        weatherIconView.setFitWidth(70);
-        weatherIconView.setFitHeight(70);
+        weatherIconView.setFitWidth(ICON_SIZE);
+        weatherIconView.setFitHeight(ICON_SIZE);
         descriptionIconView = new ImageView();
-        descriptionIconView.setFitWidth(100);//image size
-        descriptionIconView.setFitHeight(100);
+        descriptionIconView.setFitWidth(EMOJI_SIZE);//image size
+        descriptionIconView.setFitHeight(EMOJI_SIZE);
+
+        // Decode the emoji art while the user is still typing
+        WEATHER_EXECUTOR.execute(() -> {
+            for (String image : EMOJI_IMAGES) {
+                iconCache.bundled(image, EMOJI_SIZE);
+            }
+        });
 
         HBox descriptionBox = new HBox(10, descriptionLabel, descriptionIconView);
         descriptionBox.setAlignment(Pos.CENTER); // Center the HBox contents
@@ -133,99 +162,151 @@ public class WeatherApp extends Application {
         // Scene and Stage
         Scene scene = new Scene(gridPane, 600, 600);
         primaryStage.setScene(scene);
+        // No background refreshes while nobody can see them
+        primaryStage.iconifiedProperty().addListener((obs, wasIconified, iconified) -> updateRefreshActive());
+        primaryStage.setOnHidden(e -> {
+            weatherRequest.cancel();
+            stopAutoRefresh();
+            if (PRINT_CACHE_STATS) {
+                System.out.println(weatherCache.stats());
+            }
+        });
         primaryStage.show();
     }
 
 
     private void fetchWeatherData(String city) {
-        new Thread(() -> {
-            try {
-                String urlString = BASE_URL + "?q=" + city + "&appid=" + API_KEY + "&units=metric";
-                URL url = new URL(urlString);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("GET");
-
-                int responseCode = connection.getResponseCode();
-                if (responseCode == 200) {
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
+        // A newer click supersedes the previous one; its result, if it still arrives, is dropped
+        weatherRequest.cancel();
+        stopAutoRefresh();
+        CityRefresh refresh = new CityRefresh(city);
+
+        // Served from the cache when the city was fetched recently; a double-click shares one call.
+        // Icons are loaded in the background too, so the FX thread never waits on the network or a decoder.
+        CompletableFuture<WeatherSnapshot> fetched = weatherCache.get(WeatherCache.cityKey(city), () -> openWeather.current(city))
+                .thenApplyAsync(report -> {
+                    refresh.lastReport = report;
+                    return snapshotOf(report);
+                }, WEATHER_EXECUTOR);
+
+        weatherRequest.whenDone(fetched, snapshot -> {
+            updateUI(snapshot);
+            weatherContainer.setVisible(true);
+            StartupTrace.mark(StartupTrace.WEATHER_RESULT);
+            startAutoRefresh(refresh);
+        }, error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof OpenWeatherClient.StatusException httpError) {
+                cityLabel.setText("Error: " + httpError.statusCode + ". Unable to fetch weather data. Please try again.");
+            } else {
+                cause.printStackTrace();
+                cityLabel.setText("An error occurred: " + cause.getMessage());
+            }
+            cityLabel.setVisible(true);
+            animateLabel(cityLabel);
+            StartupTrace.mark(StartupTrace.WEATHER_RESULT);
+        });
+    }
+
+
+    private WeatherSnapshot snapshotOf(WeatherReport report) {
+        return WeatherSnapshot.of(report, iconCache.weatherIcon(report.iconCode(), ICON_SIZE), getEmojiIcon(report.description()));
+    }
+
+
+    private void startAutoRefresh(CityRefresh refresh) {
+        cityRefresh = refresh;
+        refreshSubscription = refreshScheduler.schedule(refresh);
+        updateRefreshActive();
+    }
+
+    private void stopAutoRefresh() {
+        if (refreshSubscription != null) {
+            refreshSubscription.cancel();
+            refreshSubscription = null;
+        }
+        cityRefresh = null;
+    }
+
+    private void updateRefreshActive() {
+        if (refreshSubscription != null) {
+            refreshSubscription.setActive(stage.isShowing() && !stage.isIconified());
+        }
+    }
 
-                    JSONObject jsonResponse = new JSONObject(response.toString());
 
-                    javafx.application.Platform.runLater(() -> {
-                        updateUI(jsonResponse);
-                        weatherContainer.setVisible(true);
-                    });
+    // Re-fetches one city with a conditional request; the screen is only touched when the report changed
+    private final class CityRefresh implements RefreshScheduler.Task {
+        private final String city;
+        private volatile WeatherReport lastReport;
+        private volatile String etag;
 
-                } else {
-                    javafx.application.Platform.runLater(() -> {
-                        cityLabel.setText("Error: " + responseCode + ". Unable to fetch weather data. Please try again.");
-                        cityLabel.setVisible(true);
-                        animateLabel(cityLabel);
-                    });
+        CityRefresh(String city) {
+            this.city = city;
+        }
+
+        @Override
+        public CompletableFuture<RefreshScheduler.Outcome> refresh() {
+            return CompletableFuture.supplyAsync(() -> {
+                OpenWeatherClient.Conditional result;
+                try {
+                    result = openWeather.currentIfChanged(city, etag);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+                if (result.notModified()) {
+                    return null;
+                }
+                etag = result.etag();
+                if (result.report().equals(lastReport)) {
+                    return null;
+                }
+                lastReport = result.report();
+                weatherCache.put(WeatherCache.cityKey(city), result.report());
+                return snapshotOf(result.report());
+            }, WEATHER_EXECUTOR).thenApply(snapshot -> {
+                if (snapshot == null) {
+                    return RefreshScheduler.Outcome.UNCHANGED;
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
                 javafx.application.Platform.runLater(() -> {
-                    cityLabel.setText("An error occurred: " + e.getMessage());
-                    cityLabel.setVisible(true);
-                    animateLabel(cityLabel);
+                    if (cityRefresh == this) {
+                        updateUI(snapshot);
+                    }
                 });
-
-            }
-        }).start();
+                return RefreshScheduler.Outcome.CHANGED;
+            });
+        }
     }
 
 
-    private void updateUI(JSONObject jsonObject) {
-        String cityName = jsonObject.getString("name");
-        JSONObject main = jsonObject.getJSONObject("main");
-        double temperature = main.getDouble("temp");
-        int humidity = main.getInt("humidity");
-        JSONObject wind = jsonObject.getJSONObject("wind");
-        double windSpeed = wind.getDouble("speed");
-        double windDirectionDegrees = wind.getDouble("deg");
-        String windDirection = getWindDirection(windDirectionDegrees);
-        JSONArray weatherArray = jsonObject.getJSONArray("weather");
-        JSONObject weather = weatherArray.getJSONObject(0);
-        String description = weather.getString("description");
-        String iconCode = weather.getString("icon");
-        long sunriseTimestamp = jsonObject.getJSONObject("sys").getLong("sunrise");
-        long sunsetTimestamp = jsonObject.getJSONObject("sys").getLong("sunset");
-        String sunriseTime = formatTime(sunriseTimestamp);
-        String sunsetTime = formatTime(sunsetTimestamp);
-        String currentTime = formatTime(System.currentTimeMillis() / 1000);
-        Image weatherIcon = new Image("http://openweathermap.org/img/wn/" + iconCode + "@2x.png");
-
-
-        cityLabel.setText("City: " + cityName);
-        animateLabel(cityLabel);
-        temperatureLabel.setText("Temperature: " + String.format("%.1f °C", temperature));
-        animateLabel(temperatureLabel);
-        humidityLabel.setText("Humidity: " + humidity + "%");
-        animateLabel(humidityLabel);
-        windLabel.setText("Wind: " + String.format("%.1f m/s %s", windSpeed, windDirection));
-        animateLabel(windLabel);
-        descriptionLabel.setText("Description: " + description);
-        animateLabel(descriptionLabel);
-        sunriseLabel.setText("Sunrise: " + sunriseTime);
-        animateLabel(sunriseLabel);
-        sunsetLabel.setText("Sunset: " + sunsetTime);
-        animateLabel(sunsetLabel);
-        currentTimeLabel.setText("Current Time: " + currentTime);
-        animateLabel(currentTimeLabel);
-
-        weatherIconView.setImage(weatherIcon);
-        animateIcon(weatherIconView);
-        Image descriptionIcon = getEmojiIcon(description);
-        descriptionIconView.setImage(descriptionIcon);
-        animateIcon(descriptionIconView);
+    // Only labels whose text changed are updated and faded in again; a refresh with the same
+    // weather touches nothing but the clock
+    private void updateUI(WeatherSnapshot snapshot) {
+        updateLabel(cityLabel, snapshot.city());
+        updateLabel(temperatureLabel, snapshot.temperature());
+        updateLabel(humidityLabel, snapshot.humidity());
+        updateLabel(windLabel, snapshot.wind());
+        updateLabel(descriptionLabel, snapshot.description());
+        updateLabel(sunriseLabel, snapshot.sunrise());
+        updateLabel(sunsetLabel, snapshot.sunset());
+        updateLabel(currentTimeLabel, "Current Time: " + WeatherSnapshot.formatTime(System.currentTimeMillis() / 1000));
+
+        updateIcon(weatherIconView, snapshot.icon());
+        updateIcon(descriptionIconView, snapshot.emoji());
+    }
 
+    private void updateLabel(Label label, String text) {
+        if (!text.equals(label.getText()) || !label.isVisible()) {
+            label.setText(text);
+            animateLabel(label);
+        }
+    }
+
+    private void updateIcon(ImageView imageView, Image image) {
+        if (image != imageView.getImage() || !imageView.isVisible()) {
+            imageView.setImage(image);
+            animateIcon(imageView);
+        }
     }
 
 
@@ -259,62 +340,23 @@ public class WeatherApp extends Application {
         Image image = null;
 
         if (lowerDescription.contains("clear")) {
-            image = loadImage("/images/sunglasses.png");
+            image = iconCache.bundled("/images/sunglasses.png", EMOJI_SIZE);
         } else if (lowerDescription.contains("clouds") || lowerDescription.contains("overcast")) {
-            image = loadImage("/images/cloud.png");
+            image = iconCache.bundled("/images/cloud.png", EMOJI_SIZE);
         } else if (lowerDescription.contains("rain") || lowerDescription.contains("drizzle")) {
-            image = loadImage("/images/rain.png");
+            image = iconCache.bundled("/images/rain.png", EMOJI_SIZE);
         } else if (lowerDescription.contains("thunderstorm")) {
-            image = loadImage("/images/thunder.png");
+            image = iconCache.bundled("/images/thunder.png", EMOJI_SIZE);
         } else if (lowerDescription.contains("snow")) {
-            image = loadImage("/images/snow.png");
+            image = iconCache.bundled("/images/snow.png", EMOJI_SIZE);
         } else if (lowerDescription.contains("mist")) {
-            image = loadImage("/images/mist.png");
+            image = iconCache.bundled("/images/mist.png", EMOJI_SIZE);
         }
 
         return image;
     }
 
 
-    private Image loadImage(String resourcePath) {
-        try {
-            return new Image(getClass().getResourceAsStream(resourcePath));
-        }
-        catch (NullPointerException e) {
-            System.err.println("Error loading image: " + resourcePath);
-            return null;
-        }
-    }
-
-
-    private String getWindDirection(double degrees) {
-        if (degrees >= 337.5 || degrees < 22.5) {
-            return "N";
-        } else if (degrees >= 22.5 && degrees < 67.5) {
-            return "NE";
-        } else if (degrees >= 67.5 && degrees < 112.5) {
-            return "E";
-        } else if (degrees >= 112.5 && degrees < 157.5) {
-            return "SE";
-        } else if (degrees >= 157.5 && degrees < 202.5) {
-            return "S";
-        } else if (degrees >= 202.5 && degrees < 247.5) {
-            return "SW";
-        } else if (degrees >= 247.5 && degrees < 292.5) {
-            return "W";
-        } else {
-            return "NW";
-        }
-    }
-
-
-    private String formatTime(long timestamp) {
-        SimpleDateFormat sdf = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-        sdf.setTimeZone(TimeZone.getDefault());
-        Date date = new Date(timestamp * 1000);
-        return sdf.format(date);
-    }
-
     private Button createStyledButton(String text, String startColor, String endColor) {
         Button button = new Button(text);
         button.setPrefWidth(250);
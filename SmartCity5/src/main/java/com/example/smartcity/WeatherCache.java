@@ -0,0 +1,155 @@
+package com.example.smartcity;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Current-weather reports keyed by city, in front of the OpenWeather API. OpenWeather only updates
+// every few minutes, so within the TTL a report is served from memory. After that it is still
+// served for a while (stale-while-revalidate) while one background call refreshes it. Concurrent
+// requests for the same city share a single in-flight call.
+//
+// The TTL and stale window can be tuned with -Dsmartcity.weather.ttlSeconds and
+// -Dsmartcity.weather.staleSeconds.
+final class WeatherCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 256;
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(
+            Long.getLong("smartcity.weather.ttlSeconds", TimeUnit.MINUTES.toSeconds(10)));
+    static final long DEFAULT_STALE_MILLIS = TimeUnit.SECONDS.toMillis(
+            Long.getLong("smartcity.weather.staleSeconds", TimeUnit.HOURS.toSeconds(1)));
+
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, CompletableFuture<WeatherReport>> inFlight = new ConcurrentHashMap<>();
+    private long hits;
+    private long staleHits;
+    private long misses;
+    private long fetches;
+
+    @FunctionalInterface
+    interface Fetcher {
+        WeatherReport fetch() throws Exception;
+    }
+
+    private record Entry(WeatherReport report, long fetchedAt) {
+    }
+
+    WeatherCache(int maxEntries, long ttlMillis, long staleMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.staleMillis = staleMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > WeatherCache.this.maxEntries;
+            }
+        };
+    }
+
+    static WeatherCache create() {
+        return new WeatherCache(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, DEFAULT_STALE_MILLIS);
+    }
+
+    // Same normalization as geocoding queries, so "  Rangpur " and "rangpur" share an entry
+    static String cityKey(String city) {
+        return "q:" + GeocodeCache.normalize(city);
+    }
+
+    static String cityIdKey(long cityId) {
+        return "id:" + cityId;
+    }
+
+    // Fresh or stale-but-usable reports complete immediately; otherwise the future completes when
+    // the (possibly shared) fetch does. Cancelling the returned future does not cancel the fetch
+    // for other callers.
+    CompletableFuture<WeatherReport> get(String key, Fetcher fetcher) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && now - entry.fetchedAt() >= ttlMillis + staleMillis) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+            } else if (now - entry.fetchedAt() < ttlMillis) {
+                hits++;
+            } else {
+                staleHits++;
+            }
+        }
+        if (entry == null) {
+            return fetch(key, fetcher).copy();
+        }
+        if (now - entry.fetchedAt() >= ttlMillis) {
+            fetch(key, fetcher); // revalidate in the background, errors keep the stale entry
+        }
+        return CompletableFuture.completedFuture(entry.report());
+    }
+
+    // The cached report if it is still within the TTL, else null; never starts a fetch
+    synchronized WeatherReport fresh(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.currentTimeMillis() - entry.fetchedAt() >= ttlMillis) {
+            return null;
+        }
+        hits++;
+        return entry.report();
+    }
+
+    // Forces a new call for this key (still shared with concurrent callers)
+    CompletableFuture<WeatherReport> refresh(String key, Fetcher fetcher) {
+        return fetch(key, fetcher).copy();
+    }
+
+    // Starts a fetch unless one for this key is already running
+    private CompletableFuture<WeatherReport> fetch(String key, Fetcher fetcher) {
+        CompletableFuture<WeatherReport> future = new CompletableFuture<>();
+        CompletableFuture<WeatherReport> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return running;
+        }
+        synchronized (this) {
+            fetches++;
+        }
+        REFRESH_EXECUTOR.execute(() -> {
+            try {
+                WeatherReport report = fetcher.fetch();
+                put(key, report);
+                future.complete(report);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    synchronized void put(String key, WeatherReport report) {
+        entries.put(key, new Entry(report, System.currentTimeMillis()));
+    }
+
+    synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized String stats() {
+        return String.format(Locale.ROOT, "weather cache: %d entries, %d fresh / %d stale hits, %d misses, %d API calls",
+                entries.size(), hits, staleHits, misses, fetches);
+    }
+}
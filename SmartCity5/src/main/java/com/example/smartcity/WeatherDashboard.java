@@ -0,0 +1,268 @@
+package com.example.smartcity;
+
+import javafx.animation.FadeTransition;
+import javafx.animation.ScaleTransition;
+import javafx.application.Application;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Control-room view: current weather for all monitored districts in one grid, refreshed with a
+// couple of batched OpenWeather calls (see MultiCityWeather).
+public class WeatherDashboard extends Application {
+
+    static final List<String> MONITORED_CITIES = List.of(
+            "Rangpur,BD", "Dinajpur,BD", "Kurigram,BD", "Gaibandha,BD", "Nilphamari,BD", "Lalmonirhat,BD",
+            "Thakurgaon,BD", "Panchagarh,BD", "Dhaka,BD", "Rajshahi,BD", "Khulna,BD", "Chittagong,BD",
+            "Sylhet,BD", "Barisal,BD", "Mymensingh,BD", "Bogra,BD");
+    private static final int COLUMNS = 4;
+    private static final double ICON_SIZE = 50;
+    private static final ExecutorService DASHBOARD_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final MultiCityWeather multiCityWeather;
+    private final IconCache iconCache;
+    private final RefreshScheduler refreshScheduler;
+    private final LatestRequest refreshRequest = new LatestRequest();
+    private final Map<String, CityCard> cards = new HashMap<>();
+    private Label statusLabel;
+    private RefreshScheduler.Subscription refreshSubscription;
+    // what the grid shows; read by the background refresh to detect changes
+    private volatile Map<String, WeatherReport> shownReports = Map.of();
+
+    public WeatherDashboard() {
+        this(new ServiceContext());
+    }
+
+    WeatherDashboard(ServiceContext services) {
+        this.multiCityWeather = services.multiCityWeather();
+        this.iconCache = services.iconCache();
+        this.refreshScheduler = services.refreshScheduler();
+    }
+
+    @Override
+    public void start(Stage primaryStage) {
+        primaryStage.setTitle("Weather Dashboard");
+
+        GridPane grid = new GridPane();
+        grid.setPadding(new Insets(15));
+        grid.setHgap(15);
+        grid.setVgap(15);
+        grid.setAlignment(Pos.CENTER);
+        for (int i = 0; i < MONITORED_CITIES.size(); i++) {
+            CityCard card = new CityCard(MONITORED_CITIES.get(i));
+            cards.put(MONITORED_CITIES.get(i), card);
+            grid.add(card.root, i % COLUMNS, i / COLUMNS);
+        }
+
+        Button refreshButton = createStyledButton("Refresh", "#FF6F61", "#D9534F");
+        refreshButton.setOnAction(e -> refresh());
+
+        statusLabel = new Label();
+        statusLabel.setFont(Font.font("Arial Rounded MT Bold", 16));
+        statusLabel.setTextFill(Color.WHITE);
+
+        HBox header = new HBox(20, refreshButton, statusLabel);
+        header.setAlignment(Pos.CENTER_LEFT);
+        header.setPadding(new Insets(15, 15, 0, 15));
+
+        ScrollPane scrollPane = new ScrollPane(grid);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setStyle("-fx-background: darkslateblue; -fx-background-color: darkslateblue;");
+
+        BorderPane root = new BorderPane(scrollPane);
+        root.setTop(header);
+        root.setBackground(new Background(new BackgroundFill(Color.DARKSLATEBLUE, CornerRadii.EMPTY, Insets.EMPTY)));
+
+        Scene scene = new Scene(root, 900, 700);
+        primaryStage.setScene(scene);
+        refreshSubscription = refreshScheduler.schedule(this::backgroundRefresh);
+        primaryStage.setOnHidden(e -> {
+            refreshRequest.cancel();
+            refreshSubscription.cancel();
+        });
+        // No background refreshes while the window is minimized
+        primaryStage.iconifiedProperty().addListener((obs, wasIconified, iconified) -> refreshSubscription.setActive(!iconified));
+        primaryStage.show();
+
+        // Opening the window takes what is still fresh from the cache; the Refresh button always calls
+        refresh(true);
+    }
+
+    private void refresh() {
+        refresh(false);
+    }
+
+    private void refresh(boolean useFresh) {
+        refreshRequest.cancel();
+        statusLabel.setText("Refreshing " + MONITORED_CITIES.size() + " cities...");
+        long startNanos = System.nanoTime();
+
+        refreshRequest.whenDone(loadUpdate(useFresh), update -> {
+            show(update);
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            statusLabel.setText(String.format(Locale.ROOT, "%d of %d cities in %d ms (%d requests)",
+                    update.weather().reports().size(), MONITORED_CITIES.size(), millis, update.weather().requests()));
+            StartupTrace.mark(StartupTrace.DASHBOARD_RESULT);
+        }, error -> {
+            statusLabel.setText("Refresh failed: " + error.getMessage());
+            StartupTrace.mark(StartupTrace.DASHBOARD_RESULT);
+        });
+    }
+
+    // Icons are resolved on the same background thread, so the grid is filled in one go
+    private CompletableFuture<DashboardUpdate> loadUpdate(boolean useFresh) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                MultiCityWeather.Result result = multiCityWeather.fetchAll(MONITORED_CITIES, useFresh);
+                Map<String, Image> icons = new HashMap<>();
+                for (Map.Entry<String, WeatherReport> entry : result.reports().entrySet()) {
+                    icons.put(entry.getKey(), iconCache.weatherIcon(entry.getValue().iconCode(), ICON_SIZE));
+                }
+                return new DashboardUpdate(result, icons);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, DASHBOARD_EXECUTOR);
+    }
+
+    private void show(DashboardUpdate update) {
+        MultiCityWeather.Result weather = update.weather();
+        weather.reports().forEach((city, report) -> cards.get(city).show(report, update.icons().get(city)));
+        weather.failures().forEach((city, error) -> cards.get(city).showError(error));
+        shownReports = weather.reports();
+    }
+
+    // Scheduled refresh; backs off while none of the reports change
+    private CompletableFuture<RefreshScheduler.Outcome> backgroundRefresh() {
+        return loadUpdate(false).thenApply(update -> {
+            MultiCityWeather.Result weather = update.weather();
+            if (weather.failures().isEmpty() && weather.reports().equals(shownReports)) {
+                return RefreshScheduler.Outcome.UNCHANGED;
+            }
+            javafx.application.Platform.runLater(() -> {
+                show(update);
+                statusLabel.setText(String.format(Locale.ROOT, "Updated %s (%d requests)",
+                        WeatherSnapshot.formatTime(System.currentTimeMillis() / 1000), weather.requests()));
+            });
+            return RefreshScheduler.Outcome.CHANGED;
+        });
+    }
+
+    private record DashboardUpdate(MultiCityWeather.Result weather, Map<String, Image> icons) {
+    }
+
+    // One city's tile in the grid
+    private static final class CityCard {
+        final VBox root;
+        final Label nameLabel;
+        final Label temperatureLabel;
+        final Label detailLabel;
+        final ImageView iconView = new ImageView();
+
+        CityCard(String city) {
+            nameLabel = createLabel(city.replace(",BD", ""), 18, Color.CYAN);
+            temperatureLabel = createLabel("--", 26, Color.YELLOW);
+            detailLabel = createLabel("", 13, Color.WHITE);
+            iconView.setFitWidth(ICON_SIZE);
+            iconView.setFitHeight(ICON_SIZE);
+            HBox top = new HBox(5, temperatureLabel, iconView);
+            top.setAlignment(Pos.CENTER_LEFT);
+            root = new VBox(4, nameLabel, top, detailLabel);
+            root.setPadding(new Insets(10));
+            root.setPrefWidth(190);
+            root.setStyle("-fx-background-color: rgba(255,255,255,0.12); -fx-background-radius: 12;");
+        }
+
+        void show(WeatherReport report, Image icon) {
+            nameLabel.setText(report.cityName());
+            updateLabel(temperatureLabel, String.format("%.1f °C", report.temperature()));
+            updateLabel(detailLabel, report.description() + "\n"
+                    + "Humidity " + report.humidity() + "%, wind "
+                    + String.format("%.1f m/s %s", report.windSpeed(), WeatherSnapshot.windDirection(report.windDegrees())));
+            if (icon != iconView.getImage()) {
+                iconView.setImage(icon);
+            }
+        }
+
+        void showError(Throwable error) {
+            updateLabel(temperatureLabel, "--");
+            updateLabel(detailLabel, error instanceof OpenWeatherClient.StatusException status
+                    ? "Error: " + status.statusCode : "Unavailable");
+        }
+
+        // Same rule as the single-city screen: only changed text is updated and faded in
+        private static void updateLabel(Label label, String text) {
+            if (!text.equals(label.getText())) {
+                label.setText(text);
+                FadeTransition fadeIn = new FadeTransition(Duration.millis(800), label);
+                fadeIn.setFromValue(0.0);
+                fadeIn.setToValue(1.0);
+                fadeIn.play();
+            }
+        }
+
+        private static Label createLabel(String text, double fontSize, Color color) {
+            Label label = new Label(text);
+            label.setFont(Font.font("Arial Rounded MT Bold", fontSize));
+            label.setTextFill(color);
+            return label;
+        }
+    }
+
+    private Button createStyledButton(String text, String startColor, String endColor) {
+        Button button = new Button(text);
+        button.setPrefWidth(160);
+        button.setPrefHeight(45);
+        button.setFont(Font.font("Arial Rounded MT Bold", 20));
+        button.setTextFill(Color.WHITE);
+        button.setStyle("-fx-background-color: linear-gradient(" + startColor + ", " + endColor + ");" +
+                "-fx-background-radius: 15;" +
+                "-fx-border-radius: 15;" +
+                "-fx-border-color: white; -fx-border-width: 2;");
+
+        DropShadow shadow = new DropShadow();
+        shadow.setRadius(10);
+        shadow.setColor(Color.GRAY);
+        button.setEffect(shadow);
+
+        button.setOnMouseEntered(e -> {
+            ScaleTransition scaleUp = new ScaleTransition(Duration.millis(200), button);
+            scaleUp.setToX(1.1);
+            scaleUp.setToY(1.1);
+            scaleUp.play();
+        });
+        button.setOnMouseExited(e -> {
+            ScaleTransition scaleDown = new ScaleTransition(Duration.millis(200), button);
+            scaleDown.setToX(1);
+            scaleDown.setToY(1);
+            scaleDown.play();
+        });
+
+        return button;
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
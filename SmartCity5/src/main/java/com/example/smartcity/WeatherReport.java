@@ -0,0 +1,99 @@
+package com.example.smartcity;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// The fields of an OpenWeather /data/2.5/weather response that the weather screens show
+record WeatherReport(long cityId, String cityName, double temperature, int humidity, double windSpeed, double windDegrees,
+                     String description, String iconCode, long sunrise, long sunset) {
+
+    static WeatherReport parse(InputStream body) throws IOException {
+        try (JsonPullParser parser = new JsonPullParser(body)) {
+            return read(parser);
+        }
+    }
+
+    // Reads one weather object; also used for the entries of a multi-city response
+    static WeatherReport read(JsonPullParser parser) throws IOException {
+        long cityId = 0;
+        String cityName = null;
+        double temperature = 0;
+        int humidity = 0;
+        double windSpeed = 0;
+        double windDegrees = 0;
+        String description = "";
+        String iconCode = null;
+        long sunrise = 0;
+        long sunset = 0;
+
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "id" -> cityId = parser.nextLong();
+                case "name" -> cityName = parser.nextString();
+                case "main" -> {
+                    parser.beginObject();
+                    while (parser.hasNext()) {
+                        switch (parser.nextName()) {
+                            case "temp" -> temperature = parser.nextDouble();
+                            case "humidity" -> humidity = parser.nextInt();
+                            default -> parser.skipValue();
+                        }
+                    }
+                    parser.endObject();
+                }
+                case "wind" -> {
+                    parser.beginObject();
+                    while (parser.hasNext()) {
+                        switch (parser.nextName()) {
+                            case "speed" -> windSpeed = parser.nextDouble();
+                            case "deg" -> windDegrees = parser.nextDouble();
+                            default -> parser.skipValue();
+                        }
+                    }
+                    parser.endObject();
+                }
+                case "weather" -> {
+                    parser.beginArray();
+                    boolean first = true;
+                    while (parser.hasNext()) {
+                        if (!first) {
+                            parser.skipValue();
+                            continue;
+                        }
+                        first = false;
+                        parser.beginObject();
+                        while (parser.hasNext()) {
+                            switch (parser.nextName()) {
+                                case "description" -> description = parser.nextString();
+                                case "icon" -> iconCode = parser.nextString();
+                                default -> parser.skipValue();
+                            }
+                        }
+                        parser.endObject();
+                    }
+                    parser.endArray();
+                }
+                case "sys" -> {
+                    parser.beginObject();
+                    while (parser.hasNext()) {
+                        switch (parser.nextName()) {
+                            case "sunrise" -> sunrise = parser.nextLong();
+                            case "sunset" -> sunset = parser.nextLong();
+                            default -> parser.skipValue();
+                        }
+                    }
+                    parser.endObject();
+                }
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+
+        if (cityName == null) {
+            throw new IOException("Weather response without a city name");
+        }
+        return new WeatherReport(cityId, cityName, temperature, humidity, windSpeed, windDegrees,
+                description, iconCode, sunrise, sunset);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.smartcity;
+
+import javafx.scene.image.Image;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Everything the weather screen shows for one report, already formatted. Built off the FX thread;
+// the screen compares it field by field with what is on display and only touches what changed.
+// Icons come from IconCache, so an unchanged icon is the same Image instance.
+record WeatherSnapshot(String city, String temperature, String humidity, String wind, String description,
+                       String sunrise, String sunset, Image icon, Image emoji) {
+
+    // DateTimeFormatter is immutable and thread-safe, unlike the SimpleDateFormat it replaces
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("hh:mm a", Locale.getDefault()).withZone(ZoneId.systemDefault());
+
+    static WeatherSnapshot of(WeatherReport report, Image icon, Image emoji) {
+        return new WeatherSnapshot(
+                "City: " + report.cityName(),
+                "Temperature: " + String.format("%.1f °C", report.temperature()),
+                "Humidity: " + report.humidity() + "%",
+                "Wind: " + String.format("%.1f m/s %s", report.windSpeed(), windDirection(report.windDegrees())),
+                "Description: " + report.description(),
+                "Sunrise: " + formatTime(report.sunrise()),
+                "Sunset: " + formatTime(report.sunset()),
+                icon,
+                emoji);
+    }
+
+    // Unix seconds -> local "hh:mm a"
+    static String formatTime(long timestamp) {
+        return TIME_FORMAT.format(Instant.ofEpochSecond(timestamp));
+    }
+
+    static String windDirection(double degrees) {
+        if (degrees >= 337.5 || degrees < 22.5) {
+            return "N";
+        } else if (degrees >= 22.5 && degrees < 67.5) {
+            return "NE";
+        } else if (degrees >= 67.5 && degrees < 112.5) {
+            return "E";
+        } else if (degrees >= 112.5 && degrees < 157.5) {
+            return "SE";
+        } else if (degrees >= 157.5 && degrees < 202.5) {
+            return "S";
+        } else if (degrees >= 202.5 && degrees < 247.5) {
+            return "SW";
+        } else if (degrees >= 247.5 && degrees < 292.5) {
+            return "W";
+        } else {
+            return "NW";
+        }
+    }
+}
@@ -1,6 +1,8 @@
 module com.example.smartcity {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.net.http;
+    requires jdk.httpserver;
     requires org.json;
 
     opens com.example.smartcity to javafx.fxml;
@@ -0,0 +1,150 @@
+package com.example.smartcity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every query is checked against a linear haversine scan over the same points
+class GeoKdTreeTest {
+
+    // distances come from the chord (with an approximated asin), the scan from haversine
+    private static final double TOLERANCE_KM = 1e-6;
+
+    private static final double[][] QUERIES = {
+            {25.7439, 89.2510},     // Rangpur
+            {90, 0}, {-90, 123},    // the poles
+            {89.99, 45}, {-89.95, -170},
+            {0, 180}, {0, -180},    // both sides of the antimeridian
+            {12.5, 179.999}, {-33.9, -179.999},
+            {0, 0}, {51.5, -0.1}, {-41.3, 174.8}
+    };
+
+    private final double[] lat;
+    private final double[] lon;
+    private final GeoKdTree tree;
+
+    GeoKdTreeTest() {
+        // uniform over the sphere, plus clusters around the poles and the antimeridian where lat/lon
+        // distances are most misleading
+        SplittableRandom random = new SplittableRandom(7);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            points.add(new double[]{Math.toDegrees(Math.asin(random.nextDouble(-1, 1))), random.nextDouble(-180, 180)});
+        }
+        for (int i = 0; i < 300; i++) {
+            points.add(new double[]{random.nextDouble(88, 90), random.nextDouble(-180, 180)});
+            points.add(new double[]{random.nextDouble(-90, -88), random.nextDouble(-180, 180)});
+            points.add(new double[]{random.nextDouble(-60, 60), random.nextBoolean()
+                    ? random.nextDouble(178, 180) : random.nextDouble(-180, -178)});
+        }
+        points.add(new double[]{90, 0});
+        points.add(new double[]{-90, 0});
+        points.add(new double[]{0, 180});
+        lat = new double[points.size()];
+        lon = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            lat[i] = points.get(i)[0];
+            lon[i] = points.get(i)[1];
+        }
+        tree = GeoKdTree.build(lat, lon);
+    }
+
+    @Test
+    void nearestMatchesLinearScan() {
+        for (double[] query : QUERIES) {
+            for (int k : new int[]{1, 5, 50, 500}) {
+                List<GeoKdTree.Hit> hits = tree.nearest(query[0], query[1], k, Double.POSITIVE_INFINITY);
+                List<GeoKdTree.Hit> expected = scan(query[0], query[1], Double.POSITIVE_INFINITY).subList(0, k);
+                assertSameHits(expected, hits, query, k);
+            }
+        }
+    }
+
+    @Test
+    void nearestRespectsMaxDistance() {
+        for (double[] query : QUERIES) {
+            for (double maxKm : new double[]{50, 300, 2000}) {
+                List<GeoKdTree.Hit> hits = tree.nearest(query[0], query[1], 20, maxKm);
+                List<GeoKdTree.Hit> inRange = scan(query[0], query[1], maxKm);
+                assertSameHits(inRange.subList(0, Math.min(20, inRange.size())), hits, query, 20);
+            }
+        }
+    }
+
+    @Test
+    void withinRadiusMatchesLinearScan() {
+        for (double[] query : QUERIES) {
+            for (double radiusKm : new double[]{10, 250, 1500, 25_000}) {
+                List<GeoKdTree.Hit> hits = tree.withinRadius(query[0], query[1], radiusKm);
+                Set<Integer> expected = new HashSet<>();
+                for (GeoKdTree.Hit hit : scan(query[0], query[1], radiusKm)) {
+                    expected.add(hit.id());
+                }
+                Set<Integer> actual = new HashSet<>();
+                for (GeoKdTree.Hit hit : hits) {
+                    actual.add(hit.id());
+                }
+                // points right on the boundary may go either way
+                expected.removeIf(id -> Math.abs(haversine(query, id) - radiusKm) < TOLERANCE_KM);
+                actual.removeIf(id -> Math.abs(haversine(query, id) - radiusKm) < TOLERANCE_KM);
+                assertEquals(expected, actual, () -> "radius " + radiusKm + " around " + query[0] + "," + query[1]);
+                assertSorted(hits);
+            }
+        }
+    }
+
+    @Test
+    void emptyAndDegenerateQueries() {
+        assertEquals(List.of(), tree.nearest(0, 0, 0, Double.POSITIVE_INFINITY));
+        assertEquals(List.of(), GeoKdTree.build(new double[0], new double[0]).nearest(0, 0, 3, Double.POSITIVE_INFINITY));
+        assertEquals(List.of(), GeoKdTree.build(new double[0], new double[0]).withinRadius(0, 0, 100));
+        assertEquals(lat.length, tree.nearest(0, 0, lat.length + 10, Double.POSITIVE_INFINITY).size());
+
+        GeoKdTree single = GeoKdTree.build(new double[]{25.7439}, new double[]{89.2510});
+        List<GeoKdTree.Hit> hits = single.nearest(25.7439, 89.2510, 1, 1);
+        assertEquals(1, hits.size());
+        assertEquals(0, hits.get(0).id());
+        assertEquals(0, hits.get(0).distanceKm(), TOLERANCE_KM);
+    }
+
+    private void assertSameHits(List<GeoKdTree.Hit> expected, List<GeoKdTree.Hit> actual, double[] query, int k) {
+        String where = "k=" + k + " around " + query[0] + "," + query[1];
+        assertEquals(expected.size(), actual.size(), where);
+        for (int i = 0; i < expected.size(); i++) {
+            // equal distances may come back in either order, so compare distances, then check each id
+            assertEquals(expected.get(i).distanceKm(), actual.get(i).distanceKm(), TOLERANCE_KM, where + " rank " + i);
+            assertEquals(haversine(query, actual.get(i).id()), actual.get(i).distanceKm(), TOLERANCE_KM, where + " rank " + i);
+        }
+        assertSorted(actual);
+    }
+
+    private static void assertSorted(List<GeoKdTree.Hit> hits) {
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).distanceKm() <= hits.get(i).distanceKm(), "not sorted at " + i);
+        }
+    }
+
+    private List<GeoKdTree.Hit> scan(double qLat, double qLon, double maxKm) {
+        List<GeoKdTree.Hit> hits = new ArrayList<>();
+        for (int i = 0; i < lat.length; i++) {
+            double d = GeoMath.haversineKm(qLat, qLon, lat[i], lon[i]);
+            if (d <= maxKm) {
+                hits.add(new GeoKdTree.Hit(i, d));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(GeoKdTree.Hit::distanceKm));
+        return hits;
+    }
+
+    private double haversine(double[] query, int id) {
+        return GeoMath.haversineKm(query[0], query[1], lat[id], lon[id]);
+    }
+}
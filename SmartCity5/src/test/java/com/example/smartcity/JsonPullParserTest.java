@@ -0,0 +1,161 @@
+package com.example.smartcity;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonPullParserTest {
+
+    @Test
+    void walksNestedDocument() throws IOException {
+        JsonPullParser parser = parser("{\"name\": \"Rangpur\", \"id\": 1185188, \"coord\": {\"lat\": 25.75, \"lon\": 89.25},"
+                + " \"tags\": [true, false, null], \"empty\": {}, \"none\": []}");
+        parser.beginObject();
+        assertEquals("name", parser.nextName());
+        assertEquals("Rangpur", parser.nextString());
+        assertEquals("id", parser.nextName());
+        assertEquals(1185188L, parser.nextLong());
+        assertEquals("coord", parser.nextName());
+        parser.beginObject();
+        assertEquals("lat", parser.nextName());
+        assertEquals(25.75, parser.nextDouble());
+        assertEquals("lon", parser.nextName());
+        assertEquals(89.25, parser.nextDouble());
+        parser.endObject();
+        assertEquals("tags", parser.nextName());
+        parser.beginArray();
+        assertTrue(parser.nextBoolean());
+        assertFalse(parser.nextBoolean());
+        parser.nextNull();
+        assertFalse(parser.hasNext());
+        parser.endArray();
+        assertEquals("empty", parser.nextName());
+        parser.beginObject();
+        parser.endObject();
+        assertEquals("none", parser.nextName());
+        parser.beginArray();
+        parser.endArray();
+        parser.endObject();
+        assertEquals(JsonPullParser.Token.END_DOCUMENT, parser.peek());
+    }
+
+    @Test
+    void quotedNumbersAreAccepted() throws IOException {
+        // Nominatim sends lat/lon as strings
+        JsonPullParser parser = parser("[\"25.7439\", \"-12\", 1e3, -0.5]");
+        parser.beginArray();
+        assertEquals(25.7439, parser.nextDouble());
+        assertEquals(-12L, parser.nextLong());
+        assertEquals(1000L, parser.nextLong());
+        assertEquals(-0.5, parser.nextDouble());
+        parser.endArray();
+    }
+
+    @Test
+    void skipValueSkipsNestedValues() throws IOException {
+        JsonPullParser parser = parser("{\"skip\": {\"a\": [1, {\"b\": \"x\\\"}\"}], \"c\": null}, \"keep\": 7}");
+        parser.beginObject();
+        parser.skipValue();
+        assertEquals("keep", parser.nextName());
+        assertEquals(7, parser.nextInt());
+        parser.endObject();
+    }
+
+    @Test
+    void decodesEscapes() throws IOException {
+        assertEquals("\" \\ / \b \f \n \r \t", string("\"\\\" \\\\ \\/ \\b \\f \\n \\r \\t\""));
+        assertEquals("Dhaka \u09A2\u09BE\u0995\u09BE", string("\"Dhaka \\u09a2\\u09BE\\u0995\\u09be\""));
+    }
+
+    @Test
+    void decodesSurrogatePairs() throws IOException {
+        String grinning = new String(Character.toChars(0x1F600));
+        // escaped as a UTF-16 pair, and as raw 4-byte UTF-8
+        assertEquals(grinning, string("\"\\ud83d\\ude00\""));
+        assertEquals("a" + grinning + "b", string("\"a" + grinning + "b\""));
+        assertEquals("\u00e9\u20ac", string("\"\u00e9\u20ac\""));
+    }
+
+    @Test
+    void rejectsTrailingCommas() {
+        assertMalformed("[1, 2,]");
+        assertMalformed("{\"a\": 1,}");
+    }
+
+    @Test
+    void rejectsBadEscapes() {
+        assertMalformed("\"\\x\"");
+        assertMalformed("\"\\u12g4\"");
+        assertMalformed("\"\\u12\"");
+    }
+
+    @Test
+    void rejectsBadLiterals() {
+        assertMalformed("[tru]");
+        assertMalformed("[nul]");
+        assertMalformed("[falsy]");
+        assertMalformed("[True]");
+    }
+
+    @Test
+    void rejectsTrailingData() {
+        assertMalformed("{} {}");
+        assertMalformed("[1] x");
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        assertMalformed("{\"a\": ");
+        assertMalformed("[1, 2");
+        assertMalformed("\"unterminated");
+        assertMalformed("{\"a\" 1}");
+    }
+
+    @Test
+    void rejectsMalformedUtf8() {
+        byte[] bytes = {'"', (byte) 0xC3, 'x', '"'};
+        assertThrows(IOException.class, () -> readAll(new JsonPullParser(new ByteArrayInputStream(bytes))));
+    }
+
+    private static JsonPullParser parser(String json) {
+        return new JsonPullParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String string(String json) throws IOException {
+        JsonPullParser parser = parser(json);
+        String value = parser.nextString();
+        assertEquals(JsonPullParser.Token.END_DOCUMENT, parser.peek());
+        return value;
+    }
+
+    private static void assertMalformed(String json) {
+        IOException e = assertThrows(IOException.class, () -> readAll(parser(json)), json);
+        assertTrue(e.getMessage().startsWith("Malformed JSON"), e.getMessage());
+    }
+
+    // Reads the whole document, values included
+    private static void readAll(JsonPullParser parser) throws IOException {
+        while (true) {
+            switch (parser.peek()) {
+                case BEGIN_OBJECT -> parser.beginObject();
+                case END_OBJECT -> parser.endObject();
+                case BEGIN_ARRAY -> parser.beginArray();
+                case END_ARRAY -> parser.endArray();
+                case NAME -> parser.nextName();
+                case STRING, NUMBER -> parser.nextString();
+                case BOOLEAN -> parser.nextBoolean();
+                case NULL -> parser.nextNull();
+                case END_DOCUMENT -> {
+                    return;
+                }
+            }
+        }
+    }
+}
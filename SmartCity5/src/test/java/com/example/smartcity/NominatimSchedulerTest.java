@@ -0,0 +1,163 @@
+package com.example.smartcity;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against a local server at the real rate (one request per second), so each test sends only a
+// handful of requests. The first request of a test always takes the single burst token; anything
+// submitted right after it has to wait in the queue, which is what the ordering tests rely on.
+class NominatimSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 15;
+
+    private final List<String> served = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    // paths that answer 429 this many more times before succeeding
+    private final Map<String, AtomicInteger> throttle = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private NominatimScheduler scheduler;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            AtomicInteger throttled = throttle.get(path);
+            if (throttled != null && throttled.getAndDecrement() > 0) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(429, -1);
+                exchange.close();
+                return;
+            }
+            served.add(path);
+            byte[] body = path.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        scheduler = NominatimScheduler.create(HttpTransport.create());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void sameUrlIsFetchedOnce() throws Exception {
+        fetch("/warm", NominatimScheduler.Priority.INTERACTIVE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        CompletableFuture<byte[]> first = fetch("/search", NominatimScheduler.Priority.INTERACTIVE);
+        CompletableFuture<byte[]> second = fetch("/search", NominatimScheduler.Priority.BACKGROUND);
+
+        assertArrayEquals(body("/search"), first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertArrayEquals(body("/search"), second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, hits.get("/search").get());
+        assertTrue(scheduler.stats().contains("1 deduplicated"), scheduler.stats());
+    }
+
+    @Test
+    void interactiveCallsGoFirst() throws Exception {
+        fetch("/warm", NominatimScheduler.Priority.INTERACTIVE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        CompletableFuture<byte[]> background = fetch("/background", NominatimScheduler.Priority.BACKGROUND);
+        CompletableFuture<byte[]> interactive = fetch("/interactive", NominatimScheduler.Priority.INTERACTIVE);
+
+        CompletableFuture.allOf(background, interactive).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(List.of("/warm", "/interactive", "/background"), served);
+    }
+
+    @Test
+    void waitingBackgroundCallIsUpgradedByInteractiveCaller() throws Exception {
+        fetch("/warm", NominatimScheduler.Priority.INTERACTIVE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        CompletableFuture<byte[]> older = fetch("/older", NominatimScheduler.Priority.BACKGROUND);
+        CompletableFuture<byte[]> upgraded = fetch("/upgraded", NominatimScheduler.Priority.BACKGROUND);
+        CompletableFuture<byte[]> sameUrl = fetch("/upgraded", NominatimScheduler.Priority.INTERACTIVE);
+
+        CompletableFuture.allOf(older, upgraded, sameUrl).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(List.of("/warm", "/upgraded", "/older"), served);
+        assertEquals(1, hits.get("/upgraded").get());
+    }
+
+    @Test
+    void cancelledQueuedCallIsDropped() throws Exception {
+        fetch("/warm", NominatimScheduler.Priority.INTERACTIVE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        CompletableFuture<byte[]> superseded = fetch("/superseded", NominatimScheduler.Priority.INTERACTIVE);
+        CompletableFuture<byte[]> latest = fetch("/latest", NominatimScheduler.Priority.INTERACTIVE);
+        superseded.cancel(true);
+
+        assertArrayEquals(body("/latest"), latest.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(List.of("/warm", "/latest"), served);
+        assertEquals(null, hits.get("/superseded"));
+        assertTrue(scheduler.stats().contains("1 dropped"), scheduler.stats());
+    }
+
+    @Test
+    void callIsKeptWhileAnotherCallerStillWantsIt() throws Exception {
+        fetch("/warm", NominatimScheduler.Priority.INTERACTIVE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        CompletableFuture<byte[]> cancelled = fetch("/shared", NominatimScheduler.Priority.INTERACTIVE);
+        CompletableFuture<byte[]> waiting = fetch("/shared", NominatimScheduler.Priority.INTERACTIVE);
+        cancelled.cancel(true);
+
+        assertArrayEquals(body("/shared"), waiting.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(scheduler.stats().contains("0 dropped"), scheduler.stats());
+    }
+
+    @Test
+    void throttledCallIsRetriedAfterRetryAfter() throws Exception {
+        throttle.put("/busy", new AtomicInteger(1));
+        long start = System.nanoTime();
+
+        assertArrayEquals(body("/busy"), fetch("/busy", NominatimScheduler.Priority.INTERACTIVE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2, hits.get("/busy").get());
+        assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1), "retried before Retry-After");
+        assertTrue(scheduler.stats().contains("1 throttled"), scheduler.stats());
+    }
+
+    @Test
+    void parsesRetryAfter() {
+        assertEquals(5_000, NominatimScheduler.retryAfterMillis("5"));
+        assertEquals(0, NominatimScheduler.retryAfterMillis(" 0 "));
+        assertEquals(NominatimScheduler.MAX_BACKOFF_MILLIS, NominatimScheduler.retryAfterMillis("3600"));
+        assertEquals(-1, NominatimScheduler.retryAfterMillis(null));
+        assertEquals(-1, NominatimScheduler.retryAfterMillis(""));
+        assertEquals(-1, NominatimScheduler.retryAfterMillis("soon"));
+
+        String inTenSeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(10));
+        long millis = NominatimScheduler.retryAfterMillis(inTenSeconds);
+        assertTrue(millis > 8_000 && millis <= 10_000, "HTTP date gave " + millis);
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusMinutes(5));
+        assertEquals(0, NominatimScheduler.retryAfterMillis(past));
+    }
+
+    private CompletableFuture<byte[]> fetch(String path, NominatimScheduler.Priority priority) {
+        return scheduler.fetch(URI.create("http://localhost:" + server.getAddress().getPort() + path), priority);
+    }
+
+    private static byte[] body(String path) {
+        return path.getBytes(StandardCharsets.UTF_8);
+    }
+}